@@ -0,0 +1,98 @@
+package com.ecommerce.project.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// The cart upsert relies on ON CONFLICT (user_id), but older databases can hold several carts per
+// user, in which case ddl-auto only logs a warning and never adds the constraint. Merge each
+// user's carts into their oldest one, then create the unique index explicitly.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CartConstraintInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartConstraintInitializer.class);
+
+    // Arbitrary key so two nodes starting together do not merge the same carts
+    private static final long LOCK_KEY = 0x63617274L;
+
+    private static final String HAS_USER_ID_UNIQUE_INDEX =
+            "SELECT EXISTS (SELECT 1 FROM pg_index i " +
+            "JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = i.indkey[0] " +
+            "WHERE i.indrelid = 'carts'::regclass AND i.indisunique AND i.indnatts = 1 " +
+            "AND i.indpred IS NULL AND a.attname = 'user_id')";
+
+    private static final String DUPLICATE_CARTS =
+            "SELECT c.cart_id FROM carts c JOIN carts k ON k.user_id = c.user_id AND k.cart_id < c.cart_id " +
+            "GROUP BY c.cart_id";
+
+    // A user with three or more carts can hold one product in several of them, so each product is
+    // folded into one row (largest quantity wins) before it reaches the kept cart
+    private static final String RAISE_KEPT_QUANTITIES =
+            "UPDATE cart_items ki SET quantity = COALESCE((SELECT MAX(ci.quantity) FROM cart_items ci " +
+            "JOIN carts c ON c.cart_id = ci.cart_id JOIN carts kc ON kc.cart_id = ki.cart_id " +
+            "WHERE c.user_id = kc.user_id AND c.cart_id <> ki.cart_id AND ci.product_id = ki.product_id " +
+            "AND ci.quantity > ki.quantity), ki.quantity) " +
+            "WHERE ki.cart_id = ANY(?)";
+
+    private static final String MOVE_MISSING_ITEMS_TO_OLDEST_CART =
+            "INSERT INTO cart_items (cart_id, product_id, quantity, discount, product_price) " +
+            "SELECT k.keep_id, ci.product_id, MAX(ci.quantity), MAX(ci.discount), MAX(ci.product_price) " +
+            "FROM cart_items ci JOIN carts c ON c.cart_id = ci.cart_id " +
+            "JOIN (SELECT user_id, MIN(cart_id) AS keep_id FROM carts GROUP BY user_id) k ON k.user_id = c.user_id " +
+            "WHERE c.cart_id <> k.keep_id AND NOT EXISTS (SELECT 1 FROM cart_items e " +
+            "WHERE e.cart_id = k.keep_id AND e.product_id = ci.product_id) " +
+            "GROUP BY k.keep_id, ci.product_id";
+
+    private static final String KEPT_CARTS =
+            "SELECT MIN(cart_id) FROM carts WHERE user_id IS NOT NULL GROUP BY user_id HAVING COUNT(*) > 1";
+
+    private static final String RECALCULATE_TOTALS =
+            "UPDATE carts c SET version = c.version + 1, total_price = COALESCE(" +
+            "(SELECT SUM(ci.product_price * ci.quantity) FROM cart_items ci WHERE ci.cart_id = c.cart_id), 0) " +
+            "WHERE c.cart_id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public CartConstraintInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, LOCK_KEY);
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_USER_ID_UNIQUE_INDEX, Boolean.class))) {
+                return;
+            }
+            int merged = mergeDuplicateCarts();
+            if (merged > 0) {
+                logger.info("Merged {} duplicate carts into their users' oldest cart", merged);
+            }
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS uk_carts_user_id ON carts (user_id)");
+        });
+    }
+
+    int mergeDuplicateCarts() {
+        Long[] duplicates = jdbcTemplate.queryForList(DUPLICATE_CARTS, Long.class).toArray(Long[]::new);
+        if (duplicates.length == 0) {
+            return 0;
+        }
+        Long[] kept = jdbcTemplate.queryForList(KEPT_CARTS, Long.class).toArray(Long[]::new);
+        jdbcTemplate.update(RAISE_KEPT_QUANTITIES, (Object) kept);
+        jdbcTemplate.update(MOVE_MISSING_ITEMS_TO_OLDEST_CART);
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ANY(?)", (Object) duplicates);
+        jdbcTemplate.update("DELETE FROM carts WHERE cart_id = ANY(?)", (Object) duplicates);
+        jdbcTemplate.update(RECALCULATE_TOTALS, (Object) kept);
+        return duplicates.length;
+    }
+}
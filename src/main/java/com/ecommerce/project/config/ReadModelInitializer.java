@@ -0,0 +1,26 @@
+package com.ecommerce.project.config;
+
+import com.ecommerce.project.repositories.OrderSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReadModelInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelInitializer.class);
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int created = orderSummaryRepository.backfillMissing();
+        if (created > 0) {
+            logger.info("Backfilled {} order summaries", created);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.project.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// orders and order_items used IDENTITY before moving to pooled sequences; make sure the
+// sequences start above any id already handed out, leaving one allocation block of headroom.
+@Component
+public class SequenceInitializer implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceInitializer.class);
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "orders_seq", "SELECT COALESCE(MAX(order_id), 0) FROM orders",
+            "order_items_seq", "SELECT COALESCE(MAX(order_item_id), 0) FROM order_items");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        SEQUENCES.forEach((sequence, maxIdQuery) -> {
+            Long maxId = jdbcTemplate.queryForObject(maxIdQuery, Long.class);
+            Long current = jdbcTemplate.queryForObject(
+                    "SELECT last_value FROM " + sequence, Long.class);
+            if (maxId != null && current != null && current <= maxId) {
+                jdbcTemplate.queryForObject("SELECT setval(?, ?)", Long.class, sequence, maxId + ALLOCATION_SIZE);
+                logger.info("Moved {} past existing id {}", sequence, maxId);
+            }
+        });
+    }
+}
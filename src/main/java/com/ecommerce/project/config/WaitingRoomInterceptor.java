@@ -0,0 +1,45 @@
+package com.ecommerce.project.config;
+
+import com.ecommerce.project.payload.APIResponse;
+import com.ecommerce.project.service.WaitingRoomService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+@Component
+public class WaitingRoomInterceptor implements HandlerInterceptor {
+
+    public static final String ADMISSION_HEADER = "X-Admission-Token";
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!waitingRoomService.isEnabled() || HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && waitingRoomService.isAdmitted(authentication.getName(), request.getHeader(ADMISSION_HEADER))) {
+            return true;
+        }
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new APIResponse("Checkout is queued, join the waiting room at /api/waiting-room/join", false));
+        return false;
+    }
+}
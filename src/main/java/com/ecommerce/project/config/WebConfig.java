@@ -1,7 +1,9 @@
 package com.ecommerce.project.config;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
@@ -10,6 +12,9 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${frontend.url}")
     private String frontendUrl;
 
+    @Autowired
+    private WaitingRoomInterceptor waitingRoomInterceptor;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -18,5 +23,12 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .allowCredentials(true);  // Allow cookies or tokens
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Only checkout and cart writes are gated; reads and the queue endpoints stay open
+        registry.addInterceptor(waitingRoomInterceptor)
+                .addPathPatterns("/api/order/cart/", "/api/order/cart/async", "/api/carts/**", "/api/cart/**");
+    }
 }
 
@@ -4,13 +4,20 @@ import com.ecommerce.project.exceptions.ResourceNotFoundException;
 import com.ecommerce.project.model.AppRole;
 import com.ecommerce.project.model.Role;
 import com.ecommerce.project.model.User;
-import com.ecommerce.project.repositories.RoleRepository;
+import com.ecommerce.project.payload.CacheStatsDTO;
+import com.ecommerce.project.payload.LoginAdmissionStatsDTO;
 import com.ecommerce.project.repositories.UserRepository;
 import com.ecommerce.project.security.response.MessageResponse;
+import com.ecommerce.project.security.services.LoginThrottleService;
+import com.ecommerce.project.security.services.PasswordHashingService;
+import com.ecommerce.project.security.services.RoleRegistry;
+import com.ecommerce.project.security.services.TokenRevocationService;
+import com.ecommerce.project.security.services.UserDetailsServiceImpl;
 import com.ecommerce.project.util.AuthUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 
@@ -18,7 +25,7 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("api/admin")
 public class AdminController {
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
 
     @Autowired
     private AuthUtil authUtil;
@@ -26,17 +33,48 @@ public class AdminController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginThrottleService loginThrottleService;
+
     private Role resolveRole(String role) {
         return switch (role.toLowerCase()) {
-            case "admin" -> roleRepository.findByRoleName(AppRole.ROLE_ADMIN)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found"));
-            case "seller" -> roleRepository.findByRoleName(AppRole.ROLE_SELLER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found"));
+            case "admin" -> roleRegistry.get(AppRole.ROLE_ADMIN);
+            case "seller" -> roleRegistry.get(AppRole.ROLE_SELLER);
             default -> throw new IllegalArgumentException("Invalid role: " + role);
         };
     }
 
 
+    // Role changes only touch the join table, so evict explicitly rather than relying on @PostUpdate
+    private void userChanged(User user) {
+        userDetailsService.evict(user.getUserName());
+        tokenRevocationService.revoke(user.getUserId());
+    }
+
+    @GetMapping("/login-admission/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LoginAdmissionStatsDTO> getLoginAdmissionStats() {
+        LoginAdmissionStatsDTO stats = passwordHashingService.getStats();
+        stats.setThrottledByAccount(loginThrottleService.getThrottledByAccount());
+        stats.setThrottledByIp(loginThrottleService.getThrottledByIp());
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    @GetMapping("/user-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CacheStatsDTO> getUserCacheStats() {
+        return new ResponseEntity<>(userDetailsService.getCacheStats(), HttpStatus.OK);
+    }
+
     @PostMapping("/add-role")
     public ResponseEntity<?> addRoleToUser(@RequestParam(name = "userId") Long userId,
                                            @RequestParam(name = "role") String role) {
@@ -60,6 +98,7 @@ public class AdminController {
         // Add the role to the user
         user.getRoles().add(roleToAdd);
         userRepository.save(user);
+        userChanged(user);
 
         return ResponseEntity.ok(new MessageResponse("Role added successfully to user."));
     }
@@ -85,6 +124,7 @@ public class AdminController {
 
         user.getRoles().remove(roleTORemove);
         userRepository.save(user);
+        userChanged(user);
 
         return new ResponseEntity<>(new MessageResponse("Role has been successfully removed."), HttpStatus.OK);
     }
@@ -0,0 +1,41 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.model.RollupDimension;
+import com.ecommerce.project.model.RollupGranularity;
+import com.ecommerce.project.payload.RollupBackfillDTO;
+import com.ecommerce.project.payload.SalesRollupDTO;
+import com.ecommerce.project.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+public class AnalyticsController {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @GetMapping("/sales")
+    public ResponseEntity<List<SalesRollupDTO>> getSales(
+            @RequestParam(name = "granularity", defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam(name = "dimension", defaultValue = "CATEGORY") RollupDimension dimension,
+            @RequestParam(name = "dimensionId", required = false) Long dimensionId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        List<SalesRollupDTO> sales = salesRollupService.getSales(granularity, dimension, dimensionId, from, to);
+        return new ResponseEntity<>(sales, HttpStatus.OK);
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<RollupBackfillDTO> rebuildRollups() {
+        return new ResponseEntity<>(salesRollupService.rebuild(), HttpStatus.OK);
+    }
+}
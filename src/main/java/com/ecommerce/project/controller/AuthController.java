@@ -1,21 +1,28 @@
 package com.ecommerce.project.controller;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import com.ecommerce.project.model.AppRole;
 import com.ecommerce.project.model.Role;
 import com.ecommerce.project.model.User;
-import com.ecommerce.project.repositories.RoleRepository;
 import com.ecommerce.project.security.jwt.JwtUtils;
 import com.ecommerce.project.security.request.LoginRequest;
+import com.ecommerce.project.security.response.AvailabilityResponse;
 import com.ecommerce.project.security.response.UserInfoResponse;
+import com.ecommerce.project.security.services.AccountAvailabilityService;
+import com.ecommerce.project.security.services.LoginThrottleService;
+import com.ecommerce.project.security.services.PasswordHashingService;
+import com.ecommerce.project.security.services.RoleRegistry;
 import com.ecommerce.project.security.services.UserDetailsImpl;
 import com.ecommerce.project.security.request.SignupRequest;
 import com.ecommerce.project.security.response.MessageResponse;
 import com.ecommerce.project.repositories.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
@@ -49,7 +56,16 @@ public class AuthController {
 
 
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private AccountAvailabilityService accountAvailabilityService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginThrottleService loginThrottleService;
 
     @Autowired
     private PasswordEncoder encoder;
@@ -58,7 +74,14 @@ public class AuthController {
     private UserDetailsService userDetailsService;
 
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        if (!loginThrottleService.tryAcquire(loginRequest.getUsername(), request.getRemoteAddr())) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("message", "Too many sign-in attempts, please retry later");
+            errorResponse.put("status", false);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorResponse);
+        }
+
         Authentication authentication;
         try {
             authentication = authenticationManager.authenticate(
@@ -68,6 +91,7 @@ public class AuthController {
                     )
             );
         } catch (AuthenticationException exception) {
+            loginThrottleService.recordFailure(loginRequest.getUsername());
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("message", "Authentication failed"); // Generic message
             errorResponse.put("status", false);
@@ -104,53 +128,73 @@ public class AuthController {
 
 
 
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+                                               @RequestParam(required = false) String email) {
+        if (username == null && email == null) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Provide a username or email"));
+        }
+        return ResponseEntity.ok(new AvailabilityResponse(
+                username == null ? null : !accountAvailabilityService.isUserNameTaken(username),
+                email == null ? null : !accountAvailabilityService.isEmailTaken(email)));
+    }
+
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByUserName(signUpRequest.getUsername())) {
+        if (accountAvailabilityService.isUserNameTaken(signUpRequest.getUsername())) {
             return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken!"));
         }
 
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+        if (accountAvailabilityService.isEmailTaken(signUpRequest.getEmail())) {
             return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already in use!"));
         }
 
         // Create new user's account
         User user = new User(signUpRequest.getUsername(),
                 signUpRequest.getEmail(),
-                encoder.encode(signUpRequest.getPassword()));
+                passwordHashingService.execute(() -> encoder.encode(signUpRequest.getPassword())));
 
         Set<String> strRoles = signUpRequest.getRole();
         Set<Role> roles = new HashSet<>();
 
         if (strRoles == null) {
-            Role userRole = roleRepository.findByRoleName(AppRole.ROLE_USER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+            Role userRole = roleRegistry.get(AppRole.ROLE_USER);
             roles.add(userRole);
         } else {
             strRoles.forEach(role -> {
                 switch (role) {
                     case "admin":
-                        Role adminRole = roleRepository.findByRoleName(AppRole.ROLE_ADMIN)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+                        Role adminRole = roleRegistry.get(AppRole.ROLE_ADMIN);
                         roles.add(adminRole);
 
                         break;
                     case "seller":
-                        Role modRole = roleRepository.findByRoleName(AppRole.ROLE_SELLER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+                        Role modRole = roleRegistry.get(AppRole.ROLE_SELLER);
                         roles.add(modRole);
 
                         break;
                     default:
-                        Role userRole = roleRepository.findByRoleName(AppRole.ROLE_USER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+                        Role userRole = roleRegistry.get(AppRole.ROLE_USER);
                         roles.add(userRole);
                 }
             });
         }
 
         user.setRoles(roles);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Taken by a signup the filters have not seen yet (e.g. on another node); the unique
+            // constraints decide, and the winning row is committed by the time the insert fails
+            if (userRepository.existsByUserName(signUpRequest.getUsername())) {
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Username is already taken!"));
+            }
+            if (userRepository.existsByEmail(signUpRequest.getEmail())) {
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Email is already in use!"));
+            }
+            throw e;
+        }
+        accountAvailabilityService.recordAccount(user.getUserName(), user.getEmail());
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
@@ -181,10 +225,10 @@ public class AuthController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            boolean isValid = jwtUtils.validateJwtToken(token);
+            Claims claims = jwtUtils.getVerifiedClaims(token);
 
-            if (isValid) {
-                String username = jwtUtils.getUserNameFromJwtToken(token);
+            if (claims != null) {
+                String username = claims.getSubject();
                 UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
 
                 response.put("isValid", true);
@@ -1,14 +1,21 @@
 package com.ecommerce.project.controller;
 
+import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.CartItemDTO;
+import com.ecommerce.project.payload.CursorResponse;
 import com.ecommerce.project.service.CartService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @RestController
 @RequestMapping("/api")
@@ -17,6 +24,9 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping("/carts/products/{productId}/quantity/{quantity}")
     public ResponseEntity<CartItemDTO> addProductToCart(@PathVariable Long productId,
                                                         @PathVariable Integer quantity){
@@ -25,9 +35,25 @@ public class CartController {
     }
 
     @GetMapping("/carts")
-    public ResponseEntity<List<CartDTO>>getCarts(){
-        List<CartDTO> cartDTOList = cartService.getAllCarts();
-        return new ResponseEntity<List<CartDTO>>(cartDTOList, HttpStatus.OK);
+    public ResponseEntity<CursorResponse<CartDTO>>getCarts(
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize){
+        CursorResponse<CartDTO> cartResponse = cartService.getAllCarts(after, pageSize);
+        return new ResponseEntity<>(cartResponse, HttpStatus.OK);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/carts/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCarts(){
+        StreamingResponseBody body = out -> cartService.streamAllCarts(cart -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(cart));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return new ResponseEntity<>(body, HttpStatus.OK);
     }
 
     @PutMapping("/cart/products/{productId}/quantity/{quantity}")
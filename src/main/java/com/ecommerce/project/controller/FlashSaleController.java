@@ -0,0 +1,36 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.payload.FlashSaleDTO;
+import com.ecommerce.project.service.FlashSaleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/flash-sales")
+@PreAuthorize("hasRole('ADMIN')")
+public class FlashSaleController {
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @PostMapping("/products/{productId}")
+    public ResponseEntity<FlashSaleDTO> startSale(@PathVariable Long productId,
+                                                  @RequestParam(name = "units") Long units) {
+        FlashSaleDTO sale = flashSaleService.startSale(productId, units);
+        return new ResponseEntity<>(sale, HttpStatus.CREATED);
+    }
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<FlashSaleDTO> getSale(@PathVariable Long productId) {
+        return new ResponseEntity<>(flashSaleService.getSale(productId), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/products/{productId}")
+    public ResponseEntity<FlashSaleDTO> endSale(@PathVariable Long productId) {
+        FlashSaleDTO sale = flashSaleService.endSale(productId);
+        return new ResponseEntity<>(sale, HttpStatus.OK);
+    }
+}
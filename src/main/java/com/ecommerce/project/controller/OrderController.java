@@ -2,7 +2,10 @@ package com.ecommerce.project.controller;
 
 import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.payload.*;
+import com.ecommerce.project.service.IdempotencyService;
+import com.ecommerce.project.service.OrderIntakeService;
 import com.ecommerce.project.service.OrderService;
+import com.ecommerce.project.service.PaymentService;
 import com.ecommerce.project.util.AuthUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,13 +24,58 @@ public class OrderController {
     @Autowired
     private AuthUtil authUtil;
 
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private PaymentService paymentService;
+
     @PostMapping("/order/cart/")
     public ResponseEntity<OrderDTO>purchaseItems(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody OrderRequestDTO orderItemRequest){
-        OrderDTO order = orderService.purchase(orderItemRequest);
+        OrderDTO order = idempotencyKey == null
+                ? orderService.purchase(orderItemRequest)
+                : idempotencyService.execute(idempotencyKey, orderItemRequest, () -> orderService.purchase(orderItemRequest));
         return new ResponseEntity<>(order, HttpStatus.CREATED);
     }
+
+    @PostMapping("/order/cart/async")
+    public ResponseEntity<OrderIntakeDTO> submitPurchase(@RequestBody OrderRequestDTO orderItemRequest){
+        OrderIntakeDTO intake = orderIntakeService.submit(orderItemRequest);
+        return new ResponseEntity<>(intake, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/order/requests/{requestId}")
+    public ResponseEntity<OrderIntakeDTO> getPurchaseStatus(@PathVariable String requestId){
+        return new ResponseEntity<>(orderIntakeService.getStatus(requestId), HttpStatus.OK);
+    }
+
+    @PutMapping("/orders/{orderId}/cancel")
+    public ResponseEntity<OrderSummaryDTO> cancelOrder(@PathVariable Long orderId){
+        return new ResponseEntity<>(orderService.cancelOrder(orderId), HttpStatus.OK);
+    }
+
+    @GetMapping("/orders/{orderId}/payment")
+    public ResponseEntity<PaymentDTO> getOrderPayment(@PathVariable Long orderId){
+        return new ResponseEntity<>(paymentService.getPaymentForOrder(orderId), HttpStatus.OK);
+    }
+
     @GetMapping("/orders/user")
+    public ResponseEntity<EntityResponse<OrderSummaryDTO>>getUserOrderSummaries(
+            @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_BY_ORDER_DATE, required = false) String sortBy,
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+    ){
+        EntityResponse<OrderSummaryDTO> summaryResponse = orderService.getUserOrderSummaries(pageNumber, pageSize, sortBy, sortOrder);
+        return new ResponseEntity<>(summaryResponse, HttpStatus.OK);
+    }
+
+    @GetMapping("/orders/user/details")
     public ResponseEntity<EntityResponse<OrderDTO>>getUserOrders(
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
             @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
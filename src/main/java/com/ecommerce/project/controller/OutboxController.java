@@ -0,0 +1,25 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.payload.OutboxStatsDTO;
+import com.ecommerce.project.service.OutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@PreAuthorize("hasRole('ADMIN')")
+public class OutboxController {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<OutboxStatsDTO> getStats() {
+        return new ResponseEntity<>(outboxService.getStats(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.project.controller;
+
+import com.ecommerce.project.payload.WaitingRoomStatusDTO;
+import com.ecommerce.project.service.WaitingRoomService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waiting-room")
+public class WaitingRoomController {
+
+    @Autowired
+    private WaitingRoomService waitingRoomService;
+
+    @PostMapping("/join")
+    public ResponseEntity<WaitingRoomStatusDTO> join(Authentication authentication) {
+        WaitingRoomStatusDTO status = waitingRoomService.join(authentication.getName());
+        return new ResponseEntity<>(status, HttpStatus.OK);
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<WaitingRoomStatusDTO> status(Authentication authentication) {
+        WaitingRoomStatusDTO status = waitingRoomService.status(authentication.getName());
+        return new ResponseEntity<>(status, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Everything of this kind placed before archivedBefore may have been moved out of the database
+@Entity
+@Data
+@Table(name = "archive_watermarks")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveWatermark {
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedBefore;
+}
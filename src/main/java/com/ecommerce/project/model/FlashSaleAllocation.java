@@ -0,0 +1,38 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "flash_sale_allocations")
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleAllocation {
+    @Id
+    private Long productId;
+
+    // Units moved out of product.quantity when the sale started
+    private Long allocated;
+
+    // Units sold as last reconciled; order items tagged with the sale id are the source of truth
+    private Long sold;
+
+    private LocalDateTime startedAt;
+
+    @Column(length = 36)
+    private String saleId;
+
+    // The one node admitting checkouts for this sale, for as long as it keeps renewing its lease
+    @Column(length = 36)
+    private String ownerNode;
+
+    private LocalDateTime heartbeatAt;
+
+    @Column(columnDefinition = "boolean default false", nullable = false)
+    private boolean ending;
+}
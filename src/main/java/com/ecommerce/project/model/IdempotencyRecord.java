@@ -0,0 +1,31 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    // Client key prefixed with the username, so keys only need to be unique per user
+    @Id
+    @Column(length = 200)
+    private String idempotencyKey;
+
+    @Column(length = 64, nullable = false)
+    private String requestHash;
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String responseBody;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.project.model;
+
+public enum OrderEventType {
+    ORDER_PLACED,
+    ORDER_CANCELLED
+}
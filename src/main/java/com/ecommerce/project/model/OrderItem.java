@@ -9,13 +9,14 @@ import lombok.NoArgsConstructor;
 
 @Entity
 @Data
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_flash_sale", columnList = "flash_sale_id"))
 @AllArgsConstructor
 @NoArgsConstructor
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long orderItemId;
 
     @ManyToOne(fetch = FetchType.EAGER)
@@ -31,4 +32,8 @@ public class OrderItem {
 
     private double price;
 
+    // Set when the units were admitted by a flash sale rather than taken from product.quantity
+    @Column(length = 36)
+    private String flashSaleId;
+
 }
\ No newline at end of file
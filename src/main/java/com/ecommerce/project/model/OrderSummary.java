@@ -0,0 +1,37 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Denormalized read model for order lists, written in the same transaction as the order
+@Entity
+@Data
+@Table(name = "order_summary",
+        indexes = @Index(name = "idx_order_summary_user_date", columnList = "user_id, order_date"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    @Id
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus;
+
+    private Double totalPrice;
+
+    private Integer itemCount;
+
+    private String firstProductName;
+
+    private String firstProductImage;
+}
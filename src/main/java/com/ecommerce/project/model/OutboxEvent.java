@@ -0,0 +1,33 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "outbox_events",
+        indexes = @Index(name = "idx_outbox_events_order_id", columnList = "order_id"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 40, nullable = false)
+    private OrderEventType eventType;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String payload;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "payments",
+        indexes = @Index(name = "idx_payments_status_next_attempt", columnList = "status, next_attempt_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class Payment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
+    private Long paymentId;
+
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+
+    private Double amount;
+
+    private String paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private PaymentStatus status;
+
+    private Integer attempts;
+
+    // Earliest time the payment may be dispatched; while AUTHORIZING it is the lease expiry
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    private String pgPaymentId;
+    private String pgStatus;
+    private String pgResponseMessage;
+    private String pgName;
+
+    private LocalDateTime createdAt;
+}
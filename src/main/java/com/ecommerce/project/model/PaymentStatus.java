@@ -0,0 +1,9 @@
+package com.ecommerce.project.model;
+
+public enum PaymentStatus {
+    PENDING,
+    AUTHORIZING,
+    APPROVED,
+    DECLINED,
+    FAILED
+}
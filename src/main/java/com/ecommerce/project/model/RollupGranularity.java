@@ -0,0 +1,6 @@
+package com.ecommerce.project.model;
+
+public enum RollupGranularity {
+    HOUR,
+    DAY
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per granularity, bucket and category or seller; written only through native upserts
+@Entity
+@Data
+@Table(name = "sales_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sales_rollups_key",
+                columnNames = {"granularity", "dimension", "dimension_id", "bucket_start"}),
+        indexes = @Index(name = "idx_sales_rollups_bucket", columnList = "granularity, dimension, bucket_start"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long rollupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10, nullable = false)
+    private RollupDimension dimension;
+
+    @Column(name = "dimension_id", nullable = false)
+    private Long dimensionId;
+
+    private Double revenue;
+
+    private Long units;
+
+    private Long orderCount;
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "stock_reservations",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"cart_id", "product_id"}),
+        indexes = @Index(name = "idx_stock_reservations_expires_at", columnList = "expires_at"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long reservationId;
+
+    @Column(name = "cart_id", nullable = false)
+    private Long cartId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private Integer quantity;
+
+    private LocalDateTime expiresAt;
+}
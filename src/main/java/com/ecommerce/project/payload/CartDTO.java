@@ -14,4 +14,9 @@ public class CartDTO {
     private Long cartId;
     private Double totalPrice = 0.0;
     private List<ProductDTO> products = new ArrayList<>();
+
+    public CartDTO(Long cartId, Double totalPrice) {
+        this.cartId = cartId;
+        this.totalPrice = totalPrice;
+    }
 }
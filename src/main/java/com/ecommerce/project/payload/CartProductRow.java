@@ -0,0 +1,24 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartProductRow {
+    private Long cartId;
+    private Long productId;
+    private String productName;
+    private String description;
+    private Integer quantity;
+    private double price;
+    private double discount;
+    private double specialPrice;
+    private String imageUrl;
+
+    public ProductDTO toProductDTO() {
+        return new ProductDTO(productId, productName, description, quantity, price, discount, specialPrice, imageUrl);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSaleDTO {
+    private Long productId;
+    private Long allocated;
+    private Long available;
+    private LocalDateTime startedAt;
+    // True while the sale is being wound down and its unsold units are not yet back on the product
+    private boolean ending;
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginAdmissionStatsDTO {
+    private int hashThreads;
+    private int activeHashes;
+    private int queueDepth;
+    private int queueCapacity;
+    private long hashesCompleted;
+    private long hashesRejected;
+    private double averageHashMs;
+    private double maxHashMs;
+    private double averageQueueWaitMs;
+    private long throttledByAccount;
+    private long throttledByIp;
+}
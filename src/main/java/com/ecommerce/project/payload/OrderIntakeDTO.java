@@ -0,0 +1,19 @@
+package com.ecommerce.project.payload;
+
+import com.ecommerce.project.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeDTO {
+    public enum Stage { QUEUED, PROCESSING, PLACED, FAILED }
+
+    private String requestId;
+    private Stage stage;
+    private Long orderId;
+    private OrderStatus orderStatus;
+    private String message;
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemRow {
+    private Long orderId;
+    private Long orderItemId;
+    private Integer quantity;
+    private double price;
+    private Long productId;
+    private String productName;
+    private String description;
+    private Integer productQuantity;
+    private double productPrice;
+    private double discount;
+    private double specialPrice;
+    private String imageUrl;
+
+    public OrderItemDTO toOrderItemDTO() {
+        ProductDTO product = new ProductDTO(productId, productName, description, productQuantity,
+                productPrice, discount, specialPrice, imageUrl);
+        return new OrderItemDTO(orderItemId, product, quantity, price);
+    }
+}
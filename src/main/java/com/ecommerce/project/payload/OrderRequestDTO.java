@@ -13,4 +13,5 @@ import java.util.List;
 public class OrderRequestDTO {
     private AddressDTO address;
     private List<OrderItemRequestDTO> orderItems = new ArrayList<>();
+    private String paymentMethod;
 }
@@ -0,0 +1,21 @@
+package com.ecommerce.project.payload;
+
+import com.ecommerce.project.model.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Double totalPrice;
+    private Integer itemCount;
+    private String firstProductName;
+    private String firstProductImage;
+}
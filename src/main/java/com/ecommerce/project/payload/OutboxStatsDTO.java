@@ -0,0 +1,21 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatsDTO {
+    private long pendingEvents;
+    private long oldestPendingAgeMs;
+    private long eventsRelayed;
+    private long batchesRelayed;
+    private int lastBatchSize;
+    private int maxBatchSize;
+    private double averageBatchSize;
+    private long lastRelayLagMs;
+    private long maxRelayLagMs;
+    private long failedBatches;
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.project.payload;
 
+import com.ecommerce.project.model.PaymentStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,6 +10,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class PaymentDTO {
     private Long paymentId;
+    private Long orderId;
+    private Double amount;
+    private PaymentStatus status;
+    private Integer attempts;
     private String paymentMethod;
     private String pgPaymentId;
     private String pgStatus;
@@ -0,0 +1,22 @@
+package com.ecommerce.project.payload;
+
+import com.ecommerce.project.model.RollupDimension;
+import com.ecommerce.project.model.RollupGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupDTO {
+    private RollupGranularity granularity;
+    private LocalDateTime bucketStart;
+    private RollupDimension dimension;
+    private Long dimensionId;
+    private Double revenue;
+    private Long units;
+    private Long orderCount;
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.project.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitingRoomStatusDTO {
+    private long position;          // 0 once admitted
+    private boolean admitted;
+    private String admissionToken;  // Send as X-Admission-Token on checkout and cart calls
+    private Long expiresAt;         // Epoch millis
+}
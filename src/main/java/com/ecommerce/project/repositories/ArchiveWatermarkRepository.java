@@ -0,0 +1,22 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.ArchiveWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ArchiveWatermarkRepository extends JpaRepository<ArchiveWatermark, String> {
+    String ORDERS = "orders";
+
+    // Only ever moves forward, whatever order concurrent archive runs commit in
+    @Modifying
+    @Query(value = "INSERT INTO archive_watermarks (name, archived_before) VALUES (:name, :archivedBefore) " +
+            "ON CONFLICT (name) DO UPDATE SET archived_before = " +
+            "GREATEST(archive_watermarks.archived_before, EXCLUDED.archived_before)", nativeQuery = true)
+    int advance(@Param("name") String name, @Param("archivedBefore") LocalDateTime archivedBefore);
+}
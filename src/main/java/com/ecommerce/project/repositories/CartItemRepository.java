@@ -1,9 +1,15 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.CartItem;
+import com.ecommerce.project.payload.CartProductRow;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
@@ -12,4 +18,26 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
     void deleteCartItemByProductIdAndCartId(Long cartId, Long productId);
+
+    @Query("SELECT new com.ecommerce.project.payload.CartProductRow(ci.cart.cartId, p.productId, p.productName, " +
+            "p.description, p.quantity, p.price, p.discount, p.specialPrice, p.imageUrl) " +
+            "FROM CartItem ci JOIN ci.product p WHERE ci.cart.cartId IN :cartIds ORDER BY ci.cartItemId")
+    List<CartProductRow> findProductRowsByCartIds(@Param("cartIds") Collection<Long> cartIds);
+
+    // Inserts the item or sets its quantity. Returns null when the product does not exist or has
+    // less stock than requiredStock. The caller refreshes the cart total afterwards.
+    @Transactional
+    @Query(value = "INSERT INTO cart_items (cart_id, product_id, quantity, discount, product_price) " +
+            "SELECT :cartId, p.product_id, :quantity, p.discount, p.special_price FROM product p " +
+            "WHERE p.product_id = :productId AND p.quantity >= :requiredStock " +
+            "ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity " +
+            "RETURNING cart_item_id", nativeQuery = true)
+    Long upsertCartItem(@Param("cartId") Long cartId,
+                        @Param("productId") Long productId,
+                        @Param("quantity") Integer quantity,
+                        @Param("requiredStock") Integer requiredStock);
+
+    @Modifying
+    @Query(value = "DELETE FROM cart_items WHERE cart_id IN :cartIds", nativeQuery = true)
+    int deleteByCartIds(@Param("cartIds") Collection<Long> cartIds);
 }
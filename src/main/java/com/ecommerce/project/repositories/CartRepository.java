@@ -1,9 +1,16 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Cart;
+import com.ecommerce.project.payload.CartDTO;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +20,34 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
     List<Cart> findCartsByProductId(Long productId);
+
+    @Query("SELECT new com.ecommerce.project.payload.CartDTO(c.cartId, c.totalPrice) FROM Cart c " +
+            "WHERE c.cartId > :after ORDER BY c.cartId")
+    List<CartDTO> findCartPageAfter(@Param("after") Long after, Pageable pageable);
+
+    // Creates the user's cart or returns the existing one; safe against concurrent first adds.
+    // Either way the cart row stays locked until commit, which serializes adds across nodes.
+    @Transactional
+    @Query(value = "INSERT INTO carts (user_id, total_price, updated_at) VALUES (:userId, 0, now()) " +
+            "ON CONFLICT (user_id) DO UPDATE SET updated_at = EXCLUDED.updated_at " +
+            "RETURNING cart_id", nativeQuery = true)
+    Long upsertCartForUser(@Param("userId") Long userId);
+
+    // A separate statement from the item upsert, so the sum sees this transaction's own row and,
+    // with the cart row locked, every row committed by earlier writers
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE carts c SET version = c.version + 1, updated_at = now(), total_price = COALESCE((" +
+            "SELECT SUM(ci.product_price * ci.quantity) FROM cart_items ci WHERE ci.cart_id = c.cart_id), 0) " +
+            "WHERE c.cart_id = :cartId", nativeQuery = true)
+    int recalculateTotal(@Param("cartId") Long cartId);
+
+    // Skips carts another sweeper or a live request holds, so nodes can sweep side by side
+    @Query(value = "SELECT cart_id FROM carts WHERE updated_at < :cutoff " +
+            "ORDER BY cart_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockAbandonedCartIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM carts WHERE cart_id IN :cartIds", nativeQuery = true)
+    int deleteByCartIds(@Param("cartIds") Collection<Long> cartIds);
 }
@@ -0,0 +1,32 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.FlashSaleAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FlashSaleAllocationRepository extends JpaRepository<FlashSaleAllocation, Long> {
+    @Query("SELECT COALESCE(SUM(oi.quantity), 0) FROM OrderItem oi WHERE oi.flashSaleId = :saleId")
+    Long countUnitsSold(@Param("saleId") String saleId);
+
+    @Query(value = "SELECT * FROM flash_sale_allocations WHERE product_id = :productId AND owner_node = :ownerNode " +
+            "FOR UPDATE", nativeQuery = true)
+    Optional<FlashSaleAllocation> lockOwned(@Param("productId") Long productId, @Param("ownerNode") String ownerNode);
+
+    // Claims a sale whose owner stopped renewing its lease (or that never had one)
+    @Modifying
+    @Query(value = "UPDATE flash_sale_allocations SET owner_node = :ownerNode, heartbeat_at = now() " +
+            "WHERE product_id = :productId AND (owner_node IS NULL OR heartbeat_at IS NULL " +
+            "OR heartbeat_at < now() - make_interval(secs => :leaseSeconds))", nativeQuery = true)
+    int claimExpired(@Param("productId") Long productId, @Param("ownerNode") String ownerNode,
+                     @Param("leaseSeconds") double leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE flash_sale_allocations SET ending = true WHERE product_id = :productId", nativeQuery = true)
+    int markEnding(@Param("productId") Long productId);
+}
@@ -3,14 +3,27 @@ package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ecommerce.project.model.OrderItem;
+import com.ecommerce.project.payload.OrderItemRow;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-}
\ No newline at end of file
+    // Items and product columns for a page of orders, without loading Product entities
+    @Query("SELECT new com.ecommerce.project.payload.OrderItemRow(oi.order.orderId, oi.orderItemId, oi.quantity, " +
+            "oi.price, p.productId, p.productName, p.description, p.quantity, p.price, p.discount, " +
+            "p.specialPrice, p.imageUrl) FROM OrderItem oi JOIN oi.product p " +
+            "WHERE oi.order.orderId IN :orderIds ORDER BY oi.orderItemId")
+    List<OrderItemRow> findRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query("DELETE FROM OrderItem oi WHERE oi.order.orderId IN :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -4,16 +4,61 @@ package com.ecommerce.project.repositories;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.ecommerce.project.model.Order;
+import com.ecommerce.project.model.OrderStatus;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    @Query("SELECT o FROM Order o WHERE o.user.email = :email")
+    @Query(value = "SELECT o FROM Order o JOIN FETCH o.user u LEFT JOIN FETCH o.address WHERE u.email = :email",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.email = :email")
     Page<Order> findAllByEmail(@Param("email") String email, Pageable pageable);
-}
\ No newline at end of file
+
+    boolean existsByOrderIdIn(Collection<Long> orderIds);
+
+    @Query("SELECT o.orderStatus FROM Order o WHERE o.orderId = :orderId")
+    Optional<OrderStatus> findStatusById(@Param("orderId") Long orderId);
+
+    @Query(value = "SELECT order_id FROM orders WHERE order_id = :orderId AND user_id = :userId " +
+            "AND order_status = 'PENDING' FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockPendingOrder(@Param("orderId") Long orderId, @Param("userId") Long userId);
+
+    @Query(value = "SELECT order_id FROM orders WHERE order_id = :orderId AND order_status = 'PENDING' FOR UPDATE",
+            nativeQuery = true)
+    Optional<Long> lockPendingOrder(@Param("orderId") Long orderId);
+
+    // Rows another node is already sweeping are skipped rather than waited on
+    @Query(value = "SELECT order_id FROM orders WHERE order_status = 'PENDING' AND order_date < :cutoff " +
+            "ORDER BY order_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpiredPendingOrderIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = :status WHERE o.orderId IN :orderIds")
+    int updateStatus(@Param("orderIds") Collection<Long> orderIds, @Param("status") OrderStatus status);
+
+    long countByUserEmail(String email);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.address WHERE o.orderId IN :orderIds")
+    List<Order> findAllWithAddressByIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Settled orders past the cutoff whose events have left the outbox and that no running flash sale still counts
+    @Query(value = "SELECT o.order_id FROM orders o WHERE o.order_date < :cutoff AND o.order_status <> 'PENDING' " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox_events e WHERE e.order_id = o.order_id) " +
+            "AND NOT EXISTS (SELECT 1 FROM order_items oi JOIN flash_sale_allocations f ON f.sale_id = oi.flash_sale_id " +
+            "WHERE oi.order_id = o.order_id) " +
+            "ORDER BY o.order_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockArchivableOrderIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.orderId IN :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
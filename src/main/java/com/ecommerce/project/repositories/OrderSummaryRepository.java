@@ -0,0 +1,37 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.OrderStatus;
+import com.ecommerce.project.model.OrderSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+    Page<OrderSummary> findByUserId(Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OrderSummary s SET s.orderStatus = :status WHERE s.orderId IN :orderIds")
+    int updateStatus(@Param("orderIds") Collection<Long> orderIds, @Param("status") OrderStatus status);
+
+    // Builds summaries for orders placed before the read model existed
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO order_summary (order_id, user_id, order_date, order_status, total_price, " +
+            "item_count, first_product_name, first_product_image) " +
+            "SELECT o.order_id, o.user_id, o.order_date, o.order_status, o.total_price, " +
+            "(SELECT COALESCE(SUM(oi.quantity), 0) FROM order_items oi WHERE oi.order_id = o.order_id), " +
+            "fp.product_name, fp.image_url FROM orders o " +
+            "LEFT JOIN LATERAL (SELECT p.product_name, p.image_url FROM order_items oi " +
+            "JOIN product p ON p.product_id = oi.product_id WHERE oi.order_id = o.order_id " +
+            "ORDER BY oi.order_item_id LIMIT 1) fp ON true " +
+            "WHERE NOT EXISTS (SELECT 1 FROM order_summary s WHERE s.order_id = o.order_id)", nativeQuery = true)
+    int backfillMissing();
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    Optional<Payment> findByOrderId(Long orderId);
+
+    // Claims one payment for dispatch, leasing it until :leaseUntil
+    @Transactional
+    @Query(value = "UPDATE payments SET status = 'AUTHORIZING', attempts = attempts + 1, " +
+            "next_attempt_at = :leaseUntil WHERE payment_id = :paymentId AND status = 'PENDING' " +
+            "RETURNING *", nativeQuery = true)
+    Optional<Payment> claim(@Param("paymentId") Long paymentId, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Claims due retries and payments whose lease ran out (e.g. the node dispatching them died)
+    @Transactional
+    @Query(value = "UPDATE payments SET status = 'AUTHORIZING', attempts = attempts + 1, " +
+            "next_attempt_at = :leaseUntil WHERE payment_id IN (SELECT payment_id FROM payments " +
+            "WHERE status IN ('PENDING', 'AUTHORIZING') AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<Payment> claimDue(@Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil,
+                           @Param("limit") int limit);
+}
@@ -2,13 +2,18 @@ package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.Category;
 import com.ecommerce.project.model.Product;
+import com.ecommerce.project.payload.ProductDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -19,4 +24,33 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT p FROM Product p WHERE p.user.email = :email")
     Page<Product> findAllByEmail(@Param("email") String email, Pageable pageable);
+
+    // Column projection so none of Product's EAGER collections are loaded
+    @Query("SELECT new com.ecommerce.project.payload.ProductDTO(p.productId, p.productName, p.description, " +
+            "p.quantity, p.price, p.discount, p.specialPrice, p.imageUrl) FROM Product p WHERE p.productId IN :ids")
+    List<ProductDTO> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Conditional decrement: updates nothing (returns 0) instead of letting stock go negative
+    @Modifying
+    @Query(value = "UPDATE product SET quantity = quantity - :amount " +
+            "WHERE product_id = :productId AND quantity >= :amount", nativeQuery = true)
+    int decrementStock(@Param("productId") Long productId, @Param("amount") int amount);
+
+    @Modifying
+    @Query(value = "UPDATE product SET quantity = quantity + :amount WHERE product_id = :productId", nativeQuery = true)
+    int incrementStock(@Param("productId") Long productId, @Param("amount") int amount);
+
+    // Locks, in product id order, every product referenced by the given orders
+    @Query(value = "SELECT p.product_id FROM product p WHERE p.product_id IN " +
+            "(SELECT oi.product_id FROM order_items oi WHERE oi.order_id IN (:orderIds)) " +
+            "ORDER BY p.product_id FOR UPDATE", nativeQuery = true)
+    List<Long> lockProductsForOrders(@Param("orderIds") Collection<Long> orderIds);
+
+    // Puts back the stock of a whole batch of orders with one statement, one row update per product
+    @Modifying
+    @Query(value = "UPDATE product p SET quantity = p.quantity + r.units FROM " +
+            "(SELECT oi.product_id, SUM(oi.quantity) AS units FROM order_items oi " +
+            "WHERE oi.order_id IN (:orderIds) GROUP BY oi.product_id) r " +
+            "WHERE p.product_id = r.product_id", nativeQuery = true)
+    int restoreStockForOrders(@Param("orderIds") Collection<Long> orderIds);
 }
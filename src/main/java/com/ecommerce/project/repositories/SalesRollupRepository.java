@@ -0,0 +1,93 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.RollupDimension;
+import com.ecommerce.project.model.RollupGranularity;
+import com.ecommerce.project.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    /*
+     * Expands weight * (revenue, units, orders) of every order in the "weights" CTE into hourly and
+     * daily facts, per category and per seller.
+     */
+    String WEIGHTED_FACTS = ", lines AS (SELECT o.order_date, w.weight, oi.price, oi.quantity, " +
+            "p.category_id, p.seller_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY o.order_id, p.category_id) AS category_rank, " +
+            "ROW_NUMBER() OVER (PARTITION BY o.order_id, p.seller_id) AS seller_rank " +
+            "FROM weights w JOIN orders o ON o.order_id = w.order_id " +
+            "JOIN order_items oi ON oi.order_id = o.order_id " +
+            "JOIN product p ON p.product_id = oi.product_id WHERE w.weight <> 0), " +
+            "facts AS (SELECT g.granularity, date_trunc(g.unit, l.order_date) AS bucket_start, d.dimension, " +
+            "CASE WHEN d.dimension = 'CATEGORY' THEN l.category_id ELSE l.seller_id END AS dimension_id, " +
+            "l.weight * l.price AS revenue, l.weight * l.quantity AS units, " +
+            "CASE WHEN (CASE WHEN d.dimension = 'CATEGORY' THEN l.category_rank ELSE l.seller_rank END) = 1 " +
+            "THEN l.weight ELSE 0 END AS orders FROM lines l " +
+            "CROSS JOIN (VALUES ('HOUR', 'hour'), ('DAY', 'day')) AS g(granularity, unit) " +
+            "CROSS JOIN (VALUES ('CATEGORY'), ('SELLER')) AS d(dimension)) ";
+
+    String BUCKET_TOTALS = "(granularity, bucket_start, dimension, dimension_id, revenue, units, order_count) " +
+            "SELECT granularity, bucket_start, dimension, dimension_id, SUM(revenue), SUM(units), SUM(orders) " +
+            "FROM facts WHERE dimension_id IS NOT NULL " +
+            "GROUP BY granularity, bucket_start, dimension, dimension_id ";
+
+    // Rows are upserted in key order so concurrent writers lock them in the same order
+    String UPSERT_WEIGHTED_ORDERS = WEIGHTED_FACTS + "INSERT INTO sales_rollups " + BUCKET_TOTALS +
+            "ORDER BY granularity, dimension, dimension_id, bucket_start " +
+            "ON CONFLICT (granularity, dimension, dimension_id, bucket_start) DO UPDATE SET " +
+            "revenue = sales_rollups.revenue + EXCLUDED.revenue, units = sales_rollups.units + EXCLUDED.units, " +
+            "order_count = sales_rollups.order_count + EXCLUDED.order_count";
+
+    @Modifying
+    @Query(value = "WITH weights AS (SELECT o.order_id, CAST(:weight AS integer) AS weight FROM orders o " +
+            "WHERE o.order_id IN (:orderIds))" + UPSERT_WEIGHTED_ORDERS, nativeQuery = true)
+    int applyOrders(@Param("orderIds") Collection<Long> orderIds, @Param("weight") int weight);
+
+    // An order counts once its ORDER_PLACED event has been relayed, and is taken back out once its
+    // ORDER_CANCELLED event has; events still in the outbox are left for the relay to apply.
+    // Chunks append partial totals to the rebuild's staging table; the swap sums them per bucket.
+    @Modifying
+    @Query(value = "WITH weights AS (SELECT o.order_id, " +
+            "(CASE WHEN NOT EXISTS (SELECT 1 FROM outbox_events e WHERE e.order_id = o.order_id " +
+            "AND e.event_type = 'ORDER_PLACED') THEN 1 ELSE 0 END) - " +
+            "(CASE WHEN o.order_status = 'CANCELLED' AND NOT EXISTS (SELECT 1 FROM outbox_events e " +
+            "WHERE e.order_id = o.order_id AND e.event_type = 'ORDER_CANCELLED') THEN 1 ELSE 0 END) AS weight " +
+            "FROM orders o WHERE o.order_id BETWEEN :fromId AND :toId)" + WEIGHTED_FACTS +
+            "INSERT INTO sales_rollups_staging " + BUCKET_TOTALS, nativeQuery = true)
+    int stageOrderRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    @Modifying
+    @Query(value = "DELETE FROM sales_rollups WHERE bucket_start >= :from", nativeQuery = true)
+    int deleteBucketsFrom(@Param("from") LocalDateTime from);
+
+    @Modifying
+    @Query(value = "INSERT INTO sales_rollups (granularity, bucket_start, dimension, dimension_id, revenue, units, order_count) " +
+            "SELECT granularity, bucket_start, dimension, dimension_id, SUM(revenue), SUM(units), SUM(order_count) " +
+            "FROM sales_rollups_staging WHERE bucket_start >= :from " +
+            "GROUP BY granularity, bucket_start, dimension, dimension_id " +
+            "ORDER BY granularity, dimension, dimension_id, bucket_start", nativeQuery = true)
+    int insertStagedBucketsFrom(@Param("from") LocalDateTime from);
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart, r.dimensionId")
+    List<SalesRollup> findBuckets(@Param("granularity") RollupGranularity granularity,
+                                  @Param("dimension") RollupDimension dimension,
+                                  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.dimension = :dimension " +
+            "AND r.dimensionId = :dimensionId AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "ORDER BY r.bucketStart")
+    List<SalesRollup> findBuckets(@Param("granularity") RollupGranularity granularity,
+                                  @Param("dimension") RollupDimension dimension,
+                                  @Param("dimensionId") Long dimensionId,
+                                  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.project.repositories;
+
+import com.ecommerce.project.model.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    Optional<StockReservation> findByCartIdAndProductId(Long cartId, Long productId);
+
+    @Query(value = "SELECT reservation_id FROM stock_reservations " +
+            "WHERE reservation_id IN :ids AND expires_at <= :now FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockExpired(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT reservation_id FROM stock_reservations " +
+            "WHERE expires_at <= :now ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockOverdue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT r.reservation_id FROM stock_reservations r JOIN carts c ON c.cart_id = r.cart_id " +
+            "WHERE c.user_id = :userId AND r.product_id IN :productIds FOR UPDATE OF r", nativeQuery = true)
+    List<Long> lockForCheckout(@Param("userId") Long userId, @Param("productIds") Collection<Long> productIds);
+
+    // Returns the held units to stock, one UPDATE per batch regardless of how many reservations it covers
+    @Modifying
+    @Query(value = "UPDATE product p SET quantity = p.quantity + r.held FROM (" +
+            "SELECT product_id, SUM(quantity) AS held FROM stock_reservations " +
+            "WHERE reservation_id IN :ids GROUP BY product_id) r " +
+            "WHERE p.product_id = r.product_id", nativeQuery = true)
+    int restoreStock(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM stock_reservations WHERE reservation_id IN :ids", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
@@ -1,9 +1,13 @@
 package com.ecommerce.project.repositories;
 
 import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.AccountRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,17 @@ public interface UserRepository extends JpaRepository<User,Long> {
     Boolean existsByUserName(String username);
 
     Boolean existsByEmail(String email);
+
+    @Query("SELECT u.userName FROM User u")
+    List<String> findAllUserNames();
+
+    @Query("SELECT u.email FROM User u")
+    List<String> findAllEmails();
+
+    @Query("SELECT COALESCE(MAX(u.userId), 0) FROM User u")
+    long findMaxUserId();
+
+    @Query("SELECT new com.ecommerce.project.payload.AccountRow(u.userId, u.userName, u.email) FROM User u " +
+            "WHERE u.userId > :afterId ORDER BY u.userId")
+    List<AccountRow> findAccountsAfter(@Param("afterId") long afterId);
 }
@@ -1,6 +1,9 @@
 package com.ecommerce.project.security.jwt;
 
+import com.ecommerce.project.security.services.TokenRevocationService;
+import com.ecommerce.project.security.services.UserDetailsImpl;
 import com.ecommerce.project.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +11,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -25,6 +29,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -33,10 +40,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         logger.debug("AuthTokenFilter called for URI: {}", request.getRequestURI());
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = jwt != null ? jwtUtils.getVerifiedClaims(jwt) : null;
+            if (claims != null) {
+                UserDetails userDetails = resolvePrincipal(claims, response);
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails,
@@ -55,6 +61,29 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /*
+     * A self-contained token that is still trusted is turned into the principal directly. Anything
+     * else (a plain token, or one issued before the user's roles changed) is loaded from the
+     * database; with self-contained tokens enabled, a fresh one is then issued in its place.
+     */
+    private UserDetails resolvePrincipal(Claims claims, HttpServletResponse response) {
+        if (jwtUtils.isSelfContained(claims)) {
+            UserDetailsImpl principal = UserDetailsImpl.fromClaims(claims);
+            if (!tokenRevocationService.isRevoked(principal.getId(), claims.getIssuedAt())) {
+                if (jwtUtils.needsRenewal(claims)) {
+                    response.addHeader(HttpHeaders.SET_COOKIE, jwtUtils.generateJwtCookie(principal).toString());
+                }
+                return principal;
+            }
+        }
+
+        UserDetailsImpl userDetails = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
+        if (jwtUtils.isSelfContainedEnabled()) {
+            response.addHeader(HttpHeaders.SET_COOKIE, jwtUtils.generateJwtCookie(userDetails).toString());
+        }
+        return userDetails;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String jwt = jwtUtils.getJwtFromCookies(request);
         logger.debug("AuthTokenFilter.java: {}", jwt);
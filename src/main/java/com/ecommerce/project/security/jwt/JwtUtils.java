@@ -4,17 +4,22 @@ import com.ecommerce.project.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtils {
@@ -32,6 +37,30 @@ public class JwtUtils {
     @Value("${spring.com.app.jwtRefreshCookie}")
     private String refreshCookie;
 
+    @Value("${spring.app.jwtSelfContained:false}")
+    private boolean selfContained;
+
+    @Value("${spring.app.jwtSelfContainedExpirationMs:900000}")
+    private long selfContainedExpirationMs;
+
+    @Value("${spring.app.jwtCacheSize:10000}")
+    private int cacheSize;
+
+    private record VerifiedToken(Claims claims, long expiresAtMs) {
+    }
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Map<String, VerifiedToken> verifiedTokens;
+
+    // Key and parser are immutable and thread-safe, so both are built once
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = new ConcurrentHashMap<>();
+    }
+
     // Retrieve JWT from the cookie in the request
     public String getJwtFromCookies(HttpServletRequest request) {
         Cookie cookie = WebUtils.getCookie(request, jwtCookie);
@@ -40,7 +69,9 @@ public class JwtUtils {
 
     // Generate a secure HTTP-only JWT cookie
     public ResponseCookie generateJwtCookie(UserDetailsImpl userPrincipal) {
-        String jwt = generateTokenFromUsername(userPrincipal.getUsername());
+        String jwt = selfContained
+                ? generateSelfContainedToken(userPrincipal)
+                : generateTokenFromUsername(userPrincipal.getUsername());
         return ResponseCookie.from(jwtCookie, jwt)
                 .path("/")
                 .httpOnly(true)                   // Prevent access via JavaScript
@@ -68,18 +99,41 @@ public class JwtUtils {
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    // Short-lived token carrying id, email and roles, so requests need no user lookup
+    public String generateSelfContainedToken(UserDetailsImpl userPrincipal) {
+        Date now = new Date();
+        return Jwts.builder()
+                .subject(userPrincipal.getUsername())
+                .claim("uid", userPrincipal.getId())
+                .claim("email", userPrincipal.getEmail())
+                .claim("roles", userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + selfContainedExpirationMs))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    public boolean isSelfContainedEnabled() {
+        return selfContained;
+    }
+
+    public boolean isSelfContained(Claims claims) {
+        return claims.containsKey("uid") && claims.containsKey("roles");
+    }
+
+    // Past half its lifetime, a self-contained token is reissued on the next request
+    public boolean needsRenewal(Claims claims) {
+        return claims.getExpiration().getTime() - System.currentTimeMillis() < selfContainedExpirationMs / 2;
+    }
+
     // Extract username from JWT token
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = getVerifiedClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     // Generate a "clean" (empty) JWT cookie for signout
@@ -90,29 +144,59 @@ public class JwtUtils {
                 .build();
     }
 
-    // Retrieve signing key from the secret
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
     // Validate JWT token and log any errors
     public boolean validateJwtToken(String authToken) {
+        return getVerifiedClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null if it is invalid. Verified tokens are
+     * remembered until they expire, so repeat requests skip parsing and the HMAC. Lookups take no
+     * lock; when the cache is full, expired tokens are swept and, if that is not enough, it starts
+     * over empty.
+     */
+    public Claims getVerifiedClaims(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(authToken);
+        if (cached != null) {
+            if (cached.expiresAtMs() > now) {
+                return cached.claims();
+            }
+            verifiedTokens.remove(authToken, cached);
+        }
+
+        Claims claims = parse(authToken);
+        if (claims != null && claims.getExpiration() != null) {
+            if (verifiedTokens.size() >= cacheSize) {
+                verifiedTokens.values().removeIf(token -> token.expiresAtMs() <= now);
+                if (verifiedTokens.size() >= cacheSize) {
+                    verifiedTokens.clear();
+                }
+            }
+            verifiedTokens.put(authToken, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    private Claims parse(String authToken) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
+            return parser.parseSignedClaims(authToken).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
 
     // Utility method to check if running in production
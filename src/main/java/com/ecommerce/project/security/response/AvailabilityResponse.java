@@ -0,0 +1,14 @@
+package com.ecommerce.project.security.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+    // Null when the value was not asked about
+    private Boolean usernameAvailable;
+    private Boolean emailAvailable;
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.payload.AccountRow;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Answers "is this username / email taken?" from Bloom filters of every existing account, so
+ * names that were never registered are rejected without a query. Possible hits are confirmed
+ * against the database, and the unique constraints on users stay the final guard. Accounts
+ * created on other nodes reach this node's filters at the next incremental refresh (every few
+ * seconds), so with several nodes a "free" answer is advisory: signup can still fail on the
+ * constraint. Until the first build finishes every check goes to the database.
+ */
+@Service
+public class AccountAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountAvailabilityService.class);
+    // Identity values are handed out before commit, so a slow signup can commit below ids already
+    // seen; each refresh re-reads this many ids back and the periodic rebuild catches anything older
+    private static final long REFRESH_OVERLAP = 100;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${spring.app.accountFilterExpectedEntries:1000000}")
+    private long expectedEntries;
+
+    @Value("${spring.app.accountFilterFalsePositiveRate:0.01}")
+    private double falsePositiveRate;
+
+    private record Filters(BloomFilter userNames, BloomFilter emails) {
+        void put(String userName, String email) {
+            userNames.put(userName);
+            emails.put(email);
+        }
+    }
+
+    private volatile Filters current;
+    private volatile Filters building;
+    // Highest user id the current filters have scanned
+    private long scannedUpTo;
+
+    @Scheduled(fixedDelayString = "${spring.app.accountFilterRebuildMs:3600000}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        long maxUserId = userRepository.findMaxUserId();
+        long size = Math.max(expectedEntries, userRepository.count() * 2);
+        Filters next = new Filters(new BloomFilter(size, falsePositiveRate), new BloomFilter(size, falsePositiveRate));
+        building = next;
+        try {
+            List<String> userNames = userRepository.findAllUserNames();
+            userNames.forEach(next.userNames()::put);
+            userRepository.findAllEmails().forEach(next.emails()::put);
+            current = next;
+            scannedUpTo = maxUserId;
+            logger.info("Built account filters for {} users in {} ms", userNames.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            building = null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.accountFilterRefreshMs:5000}")
+    public synchronized void refresh() {
+        Filters filters = current;
+        if (filters == null) {
+            return;
+        }
+        for (AccountRow account : userRepository.findAccountsAfter(Math.max(0, scannedUpTo - REFRESH_OVERLAP))) {
+            filters.put(account.getUserName(), account.getEmail());
+            scannedUpTo = Math.max(scannedUpTo, account.getUserId());
+        }
+    }
+
+    public boolean isUserNameTaken(String userName) {
+        Filters filters = current;
+        if (filters != null && !filters.userNames().mightContain(userName)) {
+            return false;
+        }
+        return userRepository.existsByUserName(userName);
+    }
+
+    public boolean isEmailTaken(String email) {
+        Filters filters = current;
+        if (filters != null && !filters.emails().mightContain(email)) {
+            return false;
+        }
+        return userRepository.existsByEmail(email);
+    }
+
+    // Called after the user is committed. Reading building before current means a rebuild that
+    // finishes in between has already swapped in filters that either scanned or received this user.
+    public void recordAccount(String userName, String email) {
+        Filters next = building;
+        if (next != null) {
+            next.put(userName, email);
+        }
+        Filters filters = current;
+        if (filters != null) {
+            filters.put(userName, email);
+        }
+    }
+}
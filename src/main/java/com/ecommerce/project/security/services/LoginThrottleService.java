@@ -0,0 +1,80 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-IP and per-account token buckets in front of sign-in, so a credential-stuffing burst is
+ * turned away before it reaches the hashing pool. Every attempt takes from its IP's bucket; an
+ * account's bucket is only charged by failed attempts, from whatever address they come, so
+ * signing in never counts against the owner and spreading guesses over many addresses does not
+ * raise the per-account limit. The IP is the client address as resolved from the load balancer's
+ * forwarded headers (server.forward-headers-strategy). Buckets are per node and are dropped once
+ * they have refilled, since a full bucket is the same as no bucket.
+ */
+@Service
+public class LoginThrottleService {
+
+    @Value("${spring.app.loginAccountBurst:5}")
+    private double accountBurst;
+
+    @Value("${spring.app.loginAccountPerMinute:5}")
+    private double accountPerMinute;
+
+    @Value("${spring.app.loginIpBurst:20}")
+    private double ipBurst;
+
+    @Value("${spring.app.loginIpPerMinute:60}")
+    private double ipPerMinute;
+
+    private final Map<String, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong throttledByAccount = new AtomicLong();
+    private final AtomicLong throttledByIp = new AtomicLong();
+
+    public boolean tryAcquire(String username, String ip) {
+        long now = System.nanoTime();
+        if (!ipBuckets.computeIfAbsent(ip, key -> new TokenBucket(ipBurst, ipPerMinute / 60, now)).tryTake(now)) {
+            throttledByIp.incrementAndGet();
+            return false;
+        }
+        TokenBucket accountBucket = accountBuckets.get(accountKey(username));
+        if (accountBucket != null && !accountBucket.hasToken(now)) {
+            throttledByAccount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public void recordFailure(String username) {
+        long now = System.nanoTime();
+        accountBuckets.computeIfAbsent(accountKey(username),
+                key -> new TokenBucket(accountBurst, accountPerMinute / 60, now)).tryTake(now);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.loginThrottleCleanupMs:60000}")
+    public void dropRefilledBuckets() {
+        long now = System.nanoTime();
+        accountBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private static String accountKey(String username) {
+        return username == null ? "" : username.toLowerCase(Locale.ROOT);
+    }
+
+    public long getThrottledByAccount() {
+        return throttledByAccount.get();
+    }
+
+    public long getThrottledByIp() {
+        return throttledByIp.get();
+    }
+}
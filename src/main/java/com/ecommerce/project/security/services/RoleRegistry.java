@@ -0,0 +1,45 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.AppRole;
+import com.ecommerce.project.model.Role;
+import com.ecommerce.project.repositories.RoleRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The role rows never change after startup, so they are read (and created if missing) once and
+ * handed out from an immutable map instead of being looked up by name on every signup or role
+ * change. The returned entities are detached; {@code User.roles} does not cascade to them, so
+ * they are linked by id only.
+ */
+@Service
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<AppRole, Role> roles = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    public void load() {
+        Map<AppRole, Role> loaded = new EnumMap<>(AppRole.class);
+        for (AppRole appRole : AppRole.values()) {
+            loaded.put(appRole, roleRepository.findByRoleName(appRole)
+                    .orElseGet(() -> roleRepository.save(new Role(appRole))));
+        }
+        roles = Collections.unmodifiableMap(loaded);
+    }
+
+    public Role get(AppRole appRole) {
+        Role role = roles.get(appRole);
+        if (role == null) {
+            throw new RuntimeException("Error: Role is not found.");
+        }
+        return role;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.project.security.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per user, the moment their self-contained tokens stopped being trusted (e.g. after a
+ * role change). Older tokens are sent back to the database for a fresh principal. Entries are only
+ * needed for one token lifetime, after which every older token has expired anyway. The map is
+ * per node; the short token lifetime bounds how long another node can lag behind.
+ */
+@Service
+public class TokenRevocationService {
+
+    @Value("${spring.app.jwtSelfContainedExpirationMs:900000}")
+    private long tokenLifetimeMs;
+
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    public void revoke(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedBefore.put(userId, now);
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < now - tokenLifetimeMs);
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Long revokedAt = revokedBefore.get(userId);
+        return revokedAt != null && (issuedAt == null || issuedAt.getTime() < revokedAt);
+    }
+}
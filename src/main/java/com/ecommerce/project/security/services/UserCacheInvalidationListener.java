@@ -0,0 +1,23 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+// Drops the cached principal once an update or delete of the user row commits
+@Component
+public class UserCacheInvalidationListener {
+
+    @Lazy
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        userDetailsService.evict(user.getUserName());
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import io.jsonwebtoken.Claims;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
@@ -52,6 +53,21 @@ public class UserDetailsImpl implements UserDetails {
                 authorities);
     }
 
+    // Principal carried entirely by a self-contained token; there is no password to check
+    public static UserDetailsImpl fromClaims(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString()))
+                .collect(Collectors.toList());
+
+        return new UserDetailsImpl(
+                ((Number) claims.get("uid")).longValue(),
+                claims.getSubject(),
+                claims.get("email", String.class),
+                null,
+                authorities);
+    }
+
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -1,28 +1,134 @@
 package com.ecommerce.project.security.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.ecommerce.project.model.User;
+import com.ecommerce.project.payload.CacheStatsDTO;
 import com.ecommerce.project.repositories.UserRepository;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads principals from the database behind a small LRU cache with a TTL, so authenticated
+ * traffic doesn't query users and roles on every request. Hits take no lock; when a miss pushes the
+ * cache past its size, the least recently used entry is dropped. User updates evict the entry on
+ * this node once their transaction commits, and a load that overlapped an eviction is returned but
+ * not cached, so it cannot put the old row back. The TTL bounds how long other nodes keep the old
+ * roles.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    private static final class CachedUser {
+        private final UserDetails userDetails;
+        private final long expiresAt;
+        private volatile long lastUsed;
+
+        private CachedUser(UserDetails userDetails, long expiresAt, long lastUsed) {
+            this.userDetails = userDetails;
+            this.expiresAt = expiresAt;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final long ttlMs;
+    private final int maxSize;
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+    // Ticks on every lookup to order entries by use, and on every eviction to fence off older loads
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserDetailsServiceImpl(@Value("${spring.app.userDetailsCacheTtl:PT30S}") Duration ttl,
+                                  @Value("${spring.app.userDetailsCacheSize:10000}") int maxSize) {
+        this.ttlMs = ttl.toMillis();
+        this.maxSize = maxSize;
+    }
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        CachedUser cached = cache.get(username);
+        if (cached != null && cached.expiresAt > now) {
+            cached.lastUsed = clock.incrementAndGet();
+            hits.incrementAndGet();
+            return cached.userDetails;
+        }
+        misses.incrementAndGet();
+
+        long loadedAt = generation.get();
         User user = userRepository.findByUserName(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
 
-        return UserDetailsImpl.build(user);
+        UserDetails userDetails = UserDetailsImpl.build(user);
+        if (ttlMs > 0) {
+            CachedUser entry = new CachedUser(userDetails, now + ttlMs, clock.incrementAndGet());
+            cache.put(username, entry);
+            if (generation.get() != loadedAt) {
+                cache.remove(username, entry);
+            } else if (cache.size() > maxSize) {
+                evictLeastRecentlyUsed();
+            }
+        }
+        return userDetails;
+    }
+
+    // Inside a transaction the entry goes once it commits; evicting earlier would let a concurrent
+    // request cache the row that is about to change
+    public void evict(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(username);
+                }
+            });
+        } else {
+            evictNow(username);
+        }
     }
 
+    public CacheStatsDTO getCacheStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        return new CacheStatsDTO(cache.size(), hitCount, missCount, evictions.get(),
+                lookups == 0 ? 0 : (double) hitCount / lookups);
+    }
 
-}
\ No newline at end of file
+    private void evictNow(String username) {
+        generation.incrementAndGet();
+        cache.remove(username);
+    }
+
+    // Only runs on a miss, so the scan is cheap next to the query that preceded it
+    private void evictLeastRecentlyUsed() {
+        while (cache.size() > maxSize) {
+            Map.Entry<String, CachedUser> eldest = null;
+            for (Map.Entry<String, CachedUser> entry : cache.entrySet()) {
+                if (eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed) {
+                    eldest = entry;
+                }
+            }
+            if (eldest != null && cache.remove(eldest.getKey(), eldest.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+}
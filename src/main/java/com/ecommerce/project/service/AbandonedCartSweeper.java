@@ -0,0 +1,99 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.repositories.CartItemRepository;
+import com.ecommerce.project.repositories.CartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class AbandonedCartSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Value("${spring.app.cartSweepRetention:P30D}")
+    private Duration retention;
+
+    @Value("${spring.app.cartSweepChunkSize:500}")
+    private int chunkSize;
+
+    @Value("${spring.app.cartSweepMaxChunks:200}")
+    private int maxChunks;
+
+    @Value("${spring.app.cartSweepPauseMs:200}")
+    private long pauseMs;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public AbandonedCartSweeper(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record SweepResult(int cartsRemoved, int cartItemsRemoved, long elapsedMs) {
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.cartSweepIntervalMs:3600000}",
+            initialDelayString = "${spring.app.cartSweepInitialDelayMs:300000}")
+    public void sweepOnSchedule() {
+        SweepResult result = sweep();
+        logger.info("Abandoned cart sweep removed {} carts and {} cart items in {} ms",
+                result.cartsRemoved(), result.cartItemsRemoved(), result.elapsedMs());
+    }
+
+    /**
+     * Deletes carts untouched for longer than the retention period, one short
+     * transaction per chunk with a pause in between so checkout traffic keeps priority.
+     */
+    public SweepResult sweep() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int carts = 0;
+        int items = 0;
+
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            int[] removed = transactionTemplate.execute(status -> {
+                List<Long> cartIds = cartRepository.lockAbandonedCartIds(cutoff, chunkSize);
+                if (cartIds.isEmpty()) {
+                    return new int[]{0, 0, 0};
+                }
+                int itemCount = cartItemRepository.deleteByCartIds(cartIds);
+                int cartCount = cartRepository.deleteByCartIds(cartIds);
+                return new int[]{cartCount, itemCount, cartIds.size()};
+            });
+
+            carts += removed[0];
+            items += removed[1];
+            if (removed[2] < chunkSize || !pause()) {
+                break;
+            }
+        }
+
+        return new SweepResult(carts, items, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,15 +1,17 @@
 package com.ecommerce.project.service;
 
-import com.ecommerce.project.model.CartItem;
 import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.CartItemDTO;
+import com.ecommerce.project.payload.CursorResponse;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 public interface CartService {
     CartItemDTO addOrUpdateCartItem(Long productId, Integer quantity);
 
-    List<CartDTO> getAllCarts();
+    CursorResponse<CartDTO> getAllCarts(Long after, Integer pageSize);
+
+    void streamAllCarts(Consumer<CartDTO> sink);
 
     CartDTO getCart();
 
@@ -7,23 +7,35 @@ import com.ecommerce.project.model.CartItem;
 import com.ecommerce.project.model.Product;
 import com.ecommerce.project.payload.CartDTO;
 import com.ecommerce.project.payload.CartItemDTO;
+import com.ecommerce.project.payload.CursorResponse;
 import com.ecommerce.project.payload.ProductDTO;
 import com.ecommerce.project.repositories.CartItemRepository;
 import com.ecommerce.project.repositories.CartRepository;
 import com.ecommerce.project.repositories.ProductRepository;
 import com.ecommerce.project.util.AuthUtil;
+import com.ecommerce.project.util.StripedUserLock;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class CartServiceImpl implements CartService {
 
+    private static final int EXPORT_PAGE_SIZE = 500;
+
     @Autowired
     private CartRepository cartRepository;
 
@@ -36,59 +48,98 @@ public class CartServiceImpl implements CartService {
     @Autowired
     private CartItemRepository cartItemRepository;
 
+    @Autowired
+    private StripedUserLock userLock;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Value("${spring.app.cartMaxRetries:3}")
+    private int maxRetries;
+
     private final ModelMapper modelMapper;
 
+    private final TransactionTemplate transactionTemplate;
+
     @Autowired
-    public CartServiceImpl(ModelMapper modelMapper) {
+    public CartServiceImpl(ModelMapper modelMapper, PlatformTransactionManager transactionManager) {
         this.modelMapper = modelMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     public CartItemDTO addOrUpdateCartItem(Long productId, Integer quantity) {
-        Cart cart = getOrCreateCart();
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        if (product.getQuantity() <= 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), productId);
-
-        if (cartItem != null) {
+        if (quantity <= 0) {
             return updateProductQuantityInCart(productId, quantity);
         }
 
-        cartItem = new CartItem();
-        cartItem.setCart(cart);
-        cartItem.setProduct(product);
-        cartItem.setQuantity(quantity);
-        cartItem.setProductPrice(product.getSpecialPrice());
-        cartItem.setDiscount(product.getDiscount());
+        return mutateCart(userId -> {
+            Long cartId = cartRepository.upsertCartForUser(userId);
+            Long cartItemId = null;
+            if (!stockReservationService.isEnabled()) {
+                cartItemId = cartItemRepository.upsertCartItem(cartId, productId, quantity, quantity);
+            } else if (stockReservationService.reserve(cartId, productId, quantity)) {
+                // Units are already out of stock, so only existence is checked here
+                cartItemId = cartItemRepository.upsertCartItem(cartId, productId, quantity, 0);
+            }
+
+            if (cartItemId == null) {
+                Product product = productRepository.findById(productId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+                if (product.getQuantity() <= 0) {
+                    throw new APIException(product.getProductName() + " is not available");
+                }
+                throw new APIException("Requested quantity exceeds available stock for product: " + product.getProductName());
+            }
+
+            cartRepository.recalculateTotal(cartId);
+
+            Long savedId = cartItemId;
+            CartItem savedCartItem = cartItemRepository.findById(savedId)
+                    .orElseThrow(() -> new ResourceNotFoundException("CartItem", "cartItemId", savedId));
+            return modelMapper.map(savedCartItem, CartItemDTO.class);
+        });
+    }
 
-        CartItem savedCartItem = cartItemRepository.save(cartItem);
-        recalculateCartTotalPrice(cart);
+    @Override
+    public CursorResponse<CartDTO> getAllCarts(Long after, Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            throw new APIException("Page size must be at least 1");
+        }
+        List<CartDTO> carts = loadCartPage(after == null ? 0L : after, pageSize);
+        if (carts.isEmpty() && after == null) {
+            throw new APIException("No cart exists");
+        }
 
-        return modelMapper.map(savedCartItem, CartItemDTO.class);
+        Long nextCursor = carts.isEmpty() ? after : carts.get(carts.size() - 1).getCartId();
+        return new CursorResponse<>(carts, nextCursor, pageSize, carts.size() < pageSize);
     }
 
     @Override
-    public List<CartDTO> getAllCarts() {
-        List<Cart> carts = cartRepository.findAll();
+    public void streamAllCarts(Consumer<CartDTO> sink) {
+        long after = 0L;
+        List<CartDTO> carts;
+        do {
+            carts = loadCartPage(after, EXPORT_PAGE_SIZE);
+            carts.forEach(sink);
+            if (!carts.isEmpty()) {
+                after = carts.get(carts.size() - 1).getCartId();
+            }
+        } while (carts.size() == EXPORT_PAGE_SIZE);
+    }
+
+    // Two queries per page: cart ids and totals, then product rows for exactly those carts
+    private List<CartDTO> loadCartPage(long after, int pageSize) {
+        List<CartDTO> carts = cartRepository.findCartPageAfter(after, PageRequest.of(0, pageSize));
         if (carts.isEmpty()) {
-            throw new APIException("No cart exists");
+            return carts;
         }
 
-        return carts.stream()
-                .map(cart -> {
-                    CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-                    List<ProductDTO> productDTOS = cart.getCartItems().stream()
-                            .map(cartItem -> modelMapper.map(cartItem.getProduct(), ProductDTO.class))
-                            .collect(Collectors.toList());
-                    cartDTO.setProducts(productDTOS);
-                    return cartDTO;
-                })
-                .collect(Collectors.toList());
+        Map<Long, CartDTO> byId = carts.stream()
+                .collect(Collectors.toMap(CartDTO::getCartId, Function.identity()));
+        cartItemRepository.findProductRowsByCartIds(byId.keySet())
+                .forEach(row -> byId.get(row.getCartId()).getProducts().add(row.toProductDTO()));
+        return carts;
     }
 
     @Override
@@ -109,45 +160,75 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    @Transactional
     public String deleteProductFromCart(Long productId) {
-        Cart cart = getOrCreateCart();
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), productId);
-
-        if (cartItem == null) {
-            throw new ResourceNotFoundException("Product", "productId", productId);
-        }
-
-        cartItemRepository.delete(cartItem);
-        cart.getCartItems().remove(cartItem);
-        recalculateCartTotalPrice(cart);
-
-        return "Product " + cartItem.getProduct().getProductName() + " removed from the cart!";
+        return mutateCart(userId -> {
+            Cart cart = getOrCreateCart();
+            CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), productId);
+
+            if (cartItem == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+
+            if (stockReservationService.isEnabled()) {
+                stockReservationService.release(cart.getCartId(), productId);
+            }
+            cartItemRepository.delete(cartItem);
+            cart.getCartItems().remove(cartItem);
+            recalculateCartTotalPrice(cart);
+
+            return "Product " + cartItem.getProduct().getProductName() + " removed from the cart!";
+        });
     }
 
     @Override
-    @Transactional
     public CartItemDTO updateProductQuantityInCart(Long productId, Integer quantity) {
-        Cart cart = getOrCreateCart();
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), productId);
-        if (cartItem == null) {
-            throw new APIException(product.getProductName() + " not available in the cart");
-        }
-
-        if (quantity <= 0) {
-            deleteProductFromCart(productId);
-        } else if (quantity > product.getQuantity()) {
-            throw new APIException("Requested quantity exceeds available stock for product: " + product.getProductName());
-        } else {
-            cartItem.setQuantity(quantity);
-            cartItemRepository.save(cartItem);
-        }
+        return mutateCart(userId -> {
+            Cart cart = getOrCreateCart();
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+
+            CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), productId);
+            if (cartItem == null) {
+                throw new APIException(product.getProductName() + " not available in the cart");
+            }
+
+            if (quantity <= 0) {
+                deleteProductFromCart(productId);
+            } else if (stockReservationService.isEnabled()
+                    ? !stockReservationService.reserve(cart.getCartId(), productId, quantity)
+                    : quantity > product.getQuantity()) {
+                throw new APIException("Requested quantity exceeds available stock for product: " + product.getProductName());
+            } else {
+                cartItem.setQuantity(quantity);
+                cartItemRepository.save(cartItem);
+            }
+
+            recalculateCartTotalPrice(cart);
+            return modelMapper.map(cartItem, CartItemDTO.class);
+        });
+    }
 
-        recalculateCartTotalPrice(cart);
-        return modelMapper.map(cartItem, CartItemDTO.class);
+    /**
+     * Serializes cart mutations per user in this JVM and retries the transaction
+     * a bounded number of times when another node bumped the cart version first.
+     * Nested calls join the caller's lock and transaction.
+     */
+    private <T> T mutateCart(Function<Long, T> mutation) {
+        Long userId = authUtil.loggedInUserId();
+        return userLock.execute(userId, () -> {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                return mutation.apply(userId);
+            }
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> mutation.apply(userId));
+                } catch (ObjectOptimisticLockingFailureException e) {
+                    if (attempt >= maxRetries) {
+                        throw new APIException("Cart was modified concurrently, please retry");
+                    }
+                }
+            }
+        });
     }
 
     private void recalculateCartTotalPrice(Cart cart) {
@@ -162,10 +243,9 @@ public class CartServiceImpl implements CartService {
         String emailId = authUtil.loggedInEmail();
         return cartRepository.findCartByEmail(emailId)
                 .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    newCart.setTotalPrice(0.00);
-                    newCart.setUser(authUtil.loggedInUser());
-                    return cartRepository.save(newCart);
+                    Long cartId = cartRepository.upsertCartForUser(authUtil.loggedInUserId());
+                    return cartRepository.findById(cartId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
                 });
     }
 }
@@ -0,0 +1,45 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends each event as one JSON line to a local file
+@Component
+@ConditionalOnProperty(name = "spring.app.outboxSink", havingValue = "file")
+public class FileOrderEventSink implements OrderEventSink {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.app.outboxFile:order-events.ndjson}")
+    private Path file;
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.newLine();
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order event", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append order events to " + file, e);
+        }
+    }
+}
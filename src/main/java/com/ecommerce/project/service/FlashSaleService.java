@@ -0,0 +1,16 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.FlashSaleDTO;
+
+public interface FlashSaleService {
+    FlashSaleDTO startSale(Long productId, Long units);
+
+    FlashSaleDTO endSale(Long productId);
+
+    FlashSaleDTO getSale(Long productId);
+
+    boolean isOnSale(Long productId);
+
+    // Returns the id of the sale that admitted the units, or null when they were not admitted
+    String tryAdmit(Long productId, int quantity);
+}
@@ -0,0 +1,306 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.model.FlashSaleAllocation;
+import com.ecommerce.project.payload.FlashSaleDTO;
+import com.ecommerce.project.repositories.FlashSaleAllocationRepository;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.util.ShardedStockCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-product flash-sale mode. Starting a sale moves the units out of product.quantity into a
+ * flash_sale_allocations row in one transaction, so the product row can never hand them out twice.
+ * Checkouts are then admitted against an in-memory sharded counter without touching the product
+ * row, and each admitted order line is tagged with the sale id.
+ * <p>
+ * Exactly one node owns a sale and admits against it, holding a lease it renews on every
+ * reconcile tick; it stops admitting once it cannot renew, and another node may claim the sale
+ * only after the lease has expired. Other nodes serve the product from product.quantity. A new
+ * owner, and the final settlement, recount units sold from the tagged order lines, so only
+ * units admitted by this sale are ever subtracted from the allocation. Ending a sale flags the
+ * row; the owner (or whoever claims an abandoned sale) drains in-flight checkouts, returns the
+ * unsold units to the product and deletes the row.
+ */
+@Service
+public class FlashSaleServiceImpl implements FlashSaleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlashSaleServiceImpl.class);
+    private static final long DRAIN_TIMEOUT_MS = 5000;
+
+    private record ActiveSale(FlashSaleAllocation allocation, ShardedStockCounter counter,
+                              LongAdder pendingSold, LongAdder inFlight, AtomicLong renewedAt) {
+    }
+
+    @Autowired
+    private FlashSaleAllocationRepository allocationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.app.flashSaleShards:16}")
+    private int shards;
+
+    @Value("${spring.app.flashSaleLeaseMs:30000}")
+    private long leaseMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, ActiveSale> sales = new ConcurrentHashMap<>();
+    // Sales that stopped admitting but still have checkouts in flight
+    private final Map<Long, ActiveSale> draining = new ConcurrentHashMap<>();
+
+    public FlashSaleServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public FlashSaleDTO startSale(Long productId, Long units) {
+        if (units == null || units <= 0 || units > Integer.MAX_VALUE) {
+            throw new APIException("Flash sale units must be between 1 and " + Integer.MAX_VALUE);
+        }
+        return transactionTemplate.execute(status -> {
+            if (allocationRepository.existsById(productId)) {
+                throw new APIException("A flash sale is already running for product: " + productId);
+            }
+            if (!productRepository.existsById(productId)) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            if (productRepository.decrementStock(productId, units.intValue()) == 0) {
+                throw new APIException("Not enough stock to allocate " + units + " units to the flash sale");
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            FlashSaleAllocation allocation = allocationRepository.save(new FlashSaleAllocation(productId, units, 0L,
+                    now, UUID.randomUUID().toString(), nodeId, now, false));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    activate(allocation, units);
+                }
+            });
+            return new FlashSaleDTO(productId, units, units, allocation.getStartedAt(), false);
+        });
+    }
+
+    @Override
+    public FlashSaleDTO endSale(Long productId) {
+        FlashSaleAllocation allocation = allocationRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("FlashSale", "productId", productId));
+        // Flag first so the sale is still wound down if this node fails half way
+        transactionTemplate.executeWithoutResult(status -> allocationRepository.markEnding(productId));
+        allocation.setEnding(true);
+
+        if (nodeId.equals(allocation.getOwnerNode())) {
+            FlashSaleDTO settled = finish(productId);
+            if (settled != null) {
+                return settled;
+            }
+        }
+        // The owning node settles it on its next reconcile tick
+        return new FlashSaleDTO(productId, allocation.getAllocated(),
+                Math.max(0, allocation.getAllocated() - allocation.getSold()), allocation.getStartedAt(), true);
+    }
+
+    @Override
+    public FlashSaleDTO getSale(Long productId) {
+        ActiveSale sale = sales.get(productId);
+        if (sale != null) {
+            FlashSaleAllocation allocation = sale.allocation();
+            return new FlashSaleDTO(productId, allocation.getAllocated(), sale.counter().available(),
+                    allocation.getStartedAt(), false);
+        }
+        FlashSaleAllocation allocation = allocationRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("FlashSale", "productId", productId));
+        return new FlashSaleDTO(productId, allocation.getAllocated(),
+                Math.max(0, allocation.getAllocated() - allocation.getSold()), allocation.getStartedAt(),
+                allocation.isEnding());
+    }
+
+    @Override
+    public boolean isOnSale(Long productId) {
+        return sales.containsKey(productId);
+    }
+
+    @Override
+    public String tryAdmit(Long productId, int quantity) {
+        ActiveSale sale = sales.get(productId);
+        if (sale == null) {
+            return null;
+        }
+        // Counted in flight before the re-check, so a sale being ended either waits for this
+        // checkout or makes it back out
+        sale.inFlight().increment();
+        if (sales.get(productId) != sale
+                || System.currentTimeMillis() - sale.renewedAt().get() > leaseMs / 2
+                || !sale.counter().tryAcquire(quantity)) {
+            sale.inFlight().decrement();
+            return null;
+        }
+
+        String saleId = sale.allocation().getSaleId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sale.pendingSold().add(quantity);
+            sale.inFlight().decrement();
+            return saleId;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    sale.pendingSold().add(quantity);
+                } else {
+                    sale.counter().release(quantity);
+                }
+                sale.inFlight().decrement();
+            }
+        });
+        return saleId;
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.flashSaleReconcileMs:1000}")
+    public void reconcile() {
+        renewLeases();
+        for (FlashSaleAllocation allocation : allocationRepository.findAll()) {
+            Long productId = allocation.getProductId();
+            boolean owned = nodeId.equals(allocation.getOwnerNode())
+                    && (sales.containsKey(productId) || draining.containsKey(productId) || allocation.isEnding());
+            if (owned) {
+                if (allocation.isEnding()) {
+                    finish(productId);
+                }
+            } else if (claim(productId)) {
+                resume(allocation);
+            }
+        }
+    }
+
+    // Folds committed admissions into the sold column and renews each lease in one batch;
+    // a sale whose row is gone or was claimed elsewhere stops admitting here.
+    private void renewLeases() {
+        List<ActiveSale> owned = new ArrayList<>(sales.values());
+        owned.addAll(draining.values());
+        if (owned.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(owned.size());
+        for (ActiveSale sale : owned) {
+            long sold = sale.pendingSold().sumThenReset();
+            batchArgs.add(new Object[]{sold, sale.allocation().getProductId(), sale.allocation().getSaleId(), nodeId});
+        }
+        long now = System.currentTimeMillis();
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE flash_sale_allocations SET sold = sold + ?, heartbeat_at = now() " +
+                "WHERE product_id = ? AND sale_id = ? AND owner_node = ?", batchArgs);
+        for (int i = 0; i < owned.size(); i++) {
+            ActiveSale sale = owned.get(i);
+            if (updated[i] > 0) {
+                sale.renewedAt().set(now);
+            } else {
+                Long productId = sale.allocation().getProductId();
+                sales.remove(productId, sale);
+                draining.remove(productId, sale);
+                logger.warn("Flash sale for product {} is no longer owned by this node", productId);
+            }
+        }
+    }
+
+    private boolean claim(Long productId) {
+        Integer claimed = transactionTemplate.execute(status ->
+                allocationRepository.claimExpired(productId, nodeId, leaseMs / 1000.0));
+        return claimed != null && claimed > 0;
+    }
+
+    private void resume(FlashSaleAllocation allocation) {
+        Long productId = allocation.getProductId();
+        // Sales started before order lines were tagged cannot be recounted, so settle them from
+        // their reconciled sold column instead of resuming
+        if (allocation.isEnding() || allocation.getSaleId() == null) {
+            finish(productId);
+            return;
+        }
+        long sold = allocationRepository.countUnitsSold(allocation.getSaleId());
+        long remaining = Math.max(0, allocation.getAllocated() - sold);
+        activate(allocation, remaining);
+        logger.info("Took over flash sale for product {} with {} of {} units left",
+                productId, remaining, allocation.getAllocated());
+    }
+
+    private ActiveSale activate(FlashSaleAllocation allocation, long remaining) {
+        ActiveSale sale = new ActiveSale(allocation, new ShardedStockCounter(remaining, shards),
+                new LongAdder(), new LongAdder(), new AtomicLong(System.currentTimeMillis()));
+        sales.put(allocation.getProductId(), sale);
+        return sale;
+    }
+
+    // Stops admitting, waits for admitted checkouts outside any transaction, then settles.
+    // Returns null when checkouts are still in flight; the next tick tries again.
+    private FlashSaleDTO finish(Long productId) {
+        ActiveSale sale = sales.remove(productId);
+        if (sale != null) {
+            draining.put(productId, sale);
+        }
+        ActiveSale drainingSale = draining.get(productId);
+        if (drainingSale != null && !awaitInFlight(drainingSale)) {
+            return null;
+        }
+        FlashSaleDTO settled = transactionTemplate.execute(status -> settle(productId));
+        draining.remove(productId);
+        return settled;
+    }
+
+    private FlashSaleDTO settle(Long productId) {
+        FlashSaleAllocation allocation = allocationRepository.lockOwned(productId, nodeId).orElse(null);
+        if (allocation == null) {
+            return null;
+        }
+        long sold = allocation.getSaleId() == null
+                ? allocation.getSold()
+                : allocationRepository.countUnitsSold(allocation.getSaleId());
+        long unsold = Math.max(0, allocation.getAllocated() - sold);
+        if (unsold > 0) {
+            productRepository.incrementStock(productId, Math.toIntExact(unsold));
+        }
+        allocationRepository.delete(allocation);
+        logger.info("Ended flash sale for product {}: {} sold, {} returned to stock", productId, sold, unsold);
+        return new FlashSaleDTO(productId, allocation.getAllocated(), unsold, allocation.getStartedAt(), false);
+    }
+
+    private boolean awaitInFlight(ActiveSale sale) {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        while (sale.inFlight().sum() > 0) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.OrderDTO;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    OrderDTO execute(String idempotencyKey, Object request, Supplier<OrderDTO> action);
+}
@@ -0,0 +1,168 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.model.IdempotencyRecord;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.repositories.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for a repeated Idempotency-Key instead of placing the order again.
+ * An in-memory map holds one future per key while its request is in flight, so concurrent
+ * duplicates on this node wait for the first execution; once the outcome is known the entry is
+ * dropped and later duplicates replay the stored record. The record is written in the same
+ * transaction as the order; a duplicate running on another node finds the key taken, rolls its
+ * order back and replays the winner's response. Expired rows are treated as absent even before
+ * cleanup removes them.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private record Entry(String requestHash, CompletableFuture<OrderDTO> response) {
+    }
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.app.idempotencyTtl:PT24H}")
+    private Duration ttl;
+
+    @Value("${spring.app.idempotencyWaitMs:30000}")
+    private long waitMs;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Entry> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public OrderDTO execute(String idempotencyKey, Object request, Supplier<OrderDTO> action) {
+        String key = SecurityContextHolder.getContext().getAuthentication().getName() + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        Entry mine = new Entry(requestHash, new CompletableFuture<>());
+        Entry existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            checkSameRequest(existing.requestHash(), requestHash);
+            return await(existing.response());
+        }
+
+        try {
+            OrderDTO response = recordRepository.findById(key)
+                    .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()))
+                    .map(r -> replay(r, requestHash))
+                    .orElseGet(() -> executeOnce(key, requestHash, action));
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Failures are not remembered: waiters see this error, the next retry runs again
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            // The record is committed by now, so later duplicates replay it from the database
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.idempotencyCleanupMs:600000}")
+    public void evictExpired() {
+        recordRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private OrderDTO executeOnce(String key, String requestHash, Supplier<OrderDTO> action) {
+        try {
+            return transactionTemplate.execute(status -> {
+                OrderDTO response = action.get();
+                LocalDateTime now = LocalDateTime.now();
+                if (recordRepository.insert(key, requestHash, serialize(response), now, now.plus(ttl)) == 0) {
+                    throw new DataIntegrityViolationException("Idempotency key " + key + " is already recorded");
+                }
+                return response;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another node committed this key first; our order was rolled back with the record
+            return recordRepository.findById(key)
+                    .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()))
+                    .map(r -> replay(r, requestHash))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private OrderDTO replay(IdempotencyRecord record, String requestHash) {
+        checkSameRequest(record.getRequestHash(), requestHash);
+        try {
+            return objectMapper.readValue(record.getResponseBody(), OrderDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private OrderDTO await(CompletableFuture<OrderDTO> response) {
+        try {
+            return response.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new APIException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new APIException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private void checkSameRequest(String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new APIException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(serialize(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent payload", e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Keeps the most recent events in memory, for local runs and tests
+@Component
+@ConditionalOnProperty(name = "spring.app.outboxSink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOrderEventSink implements OrderEventSink {
+
+    @Value("${spring.app.outboxMemoryCapacity:1000}")
+    private int capacity;
+
+    private final Deque<OutboxEvent> events = new ArrayDeque<>();
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) {
+        for (OutboxEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<OutboxEvent> recentEvents() {
+        return new ArrayList<>(events);
+    }
+}
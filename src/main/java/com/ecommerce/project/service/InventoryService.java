@@ -0,0 +1,21 @@
+package com.ecommerce.project.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface InventoryService {
+
+    record StockResult(List<Long> insufficientProductIds) {
+        public boolean isSuccessful() {
+            return insufficientProductIds.isEmpty();
+        }
+    }
+
+    /**
+     * Takes the given units out of stock. Decrements that did succeed are not undone when
+     * some product is short, so the caller must roll back its transaction on failure.
+     */
+    StockResult decrement(Map<Long, Integer> quantitiesByProduct);
+
+    void restore(Map<Long, Integer> quantitiesByProduct);
+}
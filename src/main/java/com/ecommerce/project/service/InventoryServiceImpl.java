@@ -0,0 +1,57 @@
+package com.ecommerce.project.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock changes as single conditional UPDATEs, so concurrent checkouts never read-modify-write
+ * the quantity and can't oversell. Rows are always touched in ascending product id order, which
+ * keeps two multi-line orders from locking the same products in opposite order and deadlocking.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE product SET quantity = quantity - ? WHERE product_id = ? AND quantity >= ?";
+    private static final String RESTORE_SQL =
+            "UPDATE product SET quantity = quantity + ? WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InventoryServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public StockResult decrement(Map<Long, Integer> quantitiesByProduct) {
+        List<Long> productIds = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        new TreeMap<>(quantitiesByProduct).forEach((productId, quantity) -> {
+            productIds.add(productId);
+            batchArgs.add(new Object[]{quantity, productId, quantity});
+        });
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, batchArgs);
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insufficient.add(productIds.get(i));
+            }
+        }
+        return new StockResult(insufficient);
+    }
+
+    @Override
+    public void restore(Map<Long, Integer> quantitiesByProduct) {
+        List<Object[]> batchArgs = new ArrayList<>();
+        new TreeMap<>(quantitiesByProduct).forEach((productId, quantity) ->
+                batchArgs.add(new Object[]{quantity, productId}));
+        jdbcTemplate.batchUpdate(RESTORE_SQL, batchArgs);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.OrderDTO;
+
+import java.util.List;
+
+public interface OrderArchiveService {
+    int archiveExpiredOrders();
+
+    int countForUser(Long userId);
+
+    List<OrderDTO> findForUser(Long userId, boolean newestFirst, long offset, int limit);
+}
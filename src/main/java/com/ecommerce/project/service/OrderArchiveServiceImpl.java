@@ -0,0 +1,269 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.Order;
+import com.ecommerce.project.payload.AddressDTO;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderItemDTO;
+import com.ecommerce.project.payload.OrderItemRow;
+import com.ecommerce.project.repositories.ArchiveWatermarkRepository;
+import com.ecommerce.project.repositories.OrderItemRepository;
+import com.ecommerce.project.repositories.OrderRepository;
+import com.ecommerce.project.util.ArchiveSegmentStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Moves completed and cancelled orders older than the retention window out of the database into
+ * monthly archive segments, keeping orders and order_items bounded. Each chunk's records are
+ * written and fsynced inside the transaction that deletes the rows, but only become visible once
+ * it commits (and are dropped if it rolls back), so an order is never both live and archived. A
+ * chunk left staged by a crash between commit and publish is resolved at the start of the next
+ * run by whether its orders are still in the database. Orders whose events are still in the
+ * outbox are left for later. Their order_summary rows stay behind, so the order list still shows
+ * archived orders.
+ * <p>
+ * Only the node holding the archive advisory lock runs the job. Every node reads archived orders
+ * back, so spring.app.orderArchiveDir must be storage shared by all nodes (e.g. an NFS or EFS
+ * mount); each node reloads the shared indexes on a schedule. A node that has archival disabled
+ * never creates the directory and only reads it once it exists.
+ */
+@Service
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveServiceImpl.class);
+    private static final DateTimeFormatter SEGMENT_MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final long ARCHIVE_LOCK_KEY = 4_204_301L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchiveWatermarkRepository archiveWatermarkRepository;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.app.orderArchiveEnabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.app.orderArchiveDir:archive/orders}")
+    private Path directory;
+
+    @Value("${spring.app.orderArchiveRetention:P365D}")
+    private Duration retention;
+
+    @Value("${spring.app.orderArchiveChunkSize:500}")
+    private int chunkSize;
+
+    @Value("${spring.app.orderArchiveMaxChunks:200}")
+    private int maxChunks;
+
+    private final TransactionTemplate transactionTemplate;
+    private volatile ArchiveSegmentStore store;
+
+    @Autowired
+    public OrderArchiveServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void openStore() {
+        if (enabled || Files.isDirectory(directory)) {
+            store = new ArchiveSegmentStore(directory);
+        }
+    }
+
+    // Picks up orders archived by whichever node holds the lock
+    @Scheduled(fixedDelayString = "${spring.app.orderArchiveRefreshMs:60000}")
+    public void refreshStore() {
+        ArchiveSegmentStore current = store;
+        if (current != null) {
+            current.refresh();
+        } else {
+            openStore();
+        }
+    }
+
+    @Scheduled(cron = "${spring.app.orderArchiveCron:0 30 3 * * *}")
+    public void archiveOnSchedule() {
+        if (!enabled) {
+            return;
+        }
+        // The session-level lock lives on this connection for the whole run, so one node archives
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                logger.debug("Order archival is running on another node");
+                return null;
+            }
+            try {
+                archiveExpiredOrders();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public int archiveExpiredOrders() {
+        long start = System.nanoTime();
+        resolvePending();
+        // Whole days only, so a day's sales are either all live or all archived
+        LocalDateTime cutoff = LocalDate.now().minusDays(retention.toDays()).atStartOfDay();
+        int archived = 0;
+
+        for (int chunk = 0; chunk < maxChunks; chunk++) {
+            Integer count = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            archived += count;
+            if (count < chunkSize) {
+                break;
+            }
+        }
+
+        logger.info("Archived {} orders placed before {} in {} ms", archived, cutoff,
+                (System.nanoTime() - start) / 1_000_000);
+        return archived;
+    }
+
+    @Override
+    public int countForUser(Long userId) {
+        ArchiveSegmentStore current = store;
+        return current == null ? 0 : current.countFor(userId);
+    }
+
+    @Override
+    public List<OrderDTO> findForUser(Long userId, boolean newestFirst, long offset, int limit) {
+        ArchiveSegmentStore current = store;
+        if (current == null) {
+            return List.of();
+        }
+        List<ArchiveSegmentStore.Entry> entries = current.entriesFor(userId);
+        if (newestFirst) {
+            Collections.reverse(entries);
+        }
+        return entries.stream()
+                .skip(offset)
+                .limit(limit)
+                .map(entry -> fromJson(current.read(entry)))
+                .toList();
+    }
+
+    private int archiveChunk(LocalDateTime cutoff) {
+        List<Long> orderIds = orderRepository.lockArchivableOrderIds(cutoff, chunkSize);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<OrderItemDTO>> itemsByOrder = orderItemRepository.findRowsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::getOrderId,
+                        Collectors.mapping(OrderItemRow::toOrderItemDTO, Collectors.toList())));
+
+        Map<String, List<ArchiveSegmentStore.Record>> segments = new TreeMap<>();
+        for (Order order : orderRepository.findAllWithAddressByIds(orderIds)) {
+            OrderDTO orderDTO = new OrderDTO(order.getOrderId(), order.getOrderDate(), order.getOrderStatus(),
+                    order.getTotalPrice(),
+                    order.getAddress() == null ? null : modelMapper.map(order.getAddress(), AddressDTO.class),
+                    itemsByOrder.getOrDefault(order.getOrderId(), new ArrayList<>()));
+            segments.computeIfAbsent("orders-" + order.getOrderDate().format(SEGMENT_MONTH), month -> new ArrayList<>())
+                    .add(new ArchiveSegmentStore.Record(order.getOrderId(), order.getUser().getUserId(),
+                            order.getOrderDate().toInstant(ZoneOffset.UTC).toEpochMilli(), toJson(orderDTO)));
+        }
+
+        orderItemRepository.deleteByOrderIds(orderIds);
+        orderRepository.deleteByOrderIds(orderIds);
+        // Committed with the delete, so sales rollups know which buckets they can no longer rebuild
+        archiveWatermarkRepository.advance(ArchiveWatermarkRepository.ORDERS, cutoff);
+        store.stage(segments);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    store.publishPending();
+                } else {
+                    store.discardPending();
+                }
+            }
+        });
+        return orderIds.size();
+    }
+
+    // Staged records whose orders are gone were committed; if any is still live the delete never was
+    private void resolvePending() {
+        List<Long> pending = store.pendingIds();
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (orderRepository.existsByOrderIdIn(pending)) {
+            store.discardPending();
+            logger.warn("Discarded {} staged archive records whose delete never committed", pending.size());
+        } else {
+            store.publishPending();
+            logger.warn("Published {} staged archive records left by an interrupted run", pending.size());
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT " + function + "(" + ARCHIVE_LOCK_KEY + ")")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private byte[] toJson(OrderDTO order) {
+        try {
+            return objectMapper.writeValueAsBytes(order);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize archived order " + order.getOrderId(), e);
+        }
+    }
+
+    private OrderDTO fromJson(byte[] json) {
+        try {
+            return objectMapper.readValue(json, OrderDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived order", e);
+        }
+    }
+}
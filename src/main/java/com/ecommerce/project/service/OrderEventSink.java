@@ -0,0 +1,13 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination for relayed order events. A batch is only removed from the outbox once
+ * publish returns, so sinks must tolerate seeing the same event again after a failure.
+ */
+public interface OrderEventSink {
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.OrderIntakeDTO;
+import com.ecommerce.project.payload.OrderRequestDTO;
+
+public interface OrderIntakeService {
+    OrderIntakeDTO submit(OrderRequestDTO orderRequest);
+
+    OrderIntakeDTO getStatus(String requestId);
+}
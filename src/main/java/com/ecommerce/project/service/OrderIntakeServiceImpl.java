@@ -0,0 +1,207 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.model.OrderStatus;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderIntakeDTO;
+import com.ecommerce.project.payload.OrderItemRequestDTO;
+import com.ecommerce.project.payload.OrderRequestDTO;
+import com.ecommerce.project.repositories.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous checkout. Requests are validated, given a request id and put on a bounded queue;
+ * a full queue is answered with 503 instead of piling up threads. A fixed set of workers drains
+ * the queue in micro-batches, so a burst costs one queue hand-off per batch rather than per
+ * order, and runs each order through the regular transactional purchase as the user who
+ * submitted it. Outcomes are kept in memory for polling until they age out; a placed order's
+ * status is read from the order itself, so payment and cancellation show up. On shutdown new
+ * requests are refused and the workers finish everything already accepted before stopping.
+ */
+@Service
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeServiceImpl.class);
+
+    private record Job(String requestId, OrderRequestDTO request, Authentication authentication) {
+    }
+
+    private record Outcome(OrderIntakeDTO status, String owner, long updatedAt) {
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${spring.app.orderIntakeWorkers:4}")
+    private int workers;
+
+    @Value("${spring.app.orderIntakeBatchSize:16}")
+    private int batchSize;
+
+    @Value("${spring.app.orderIntakeDrainTimeout:PT30S}")
+    private Duration drainTimeout;
+
+    @Value("${spring.app.orderIntakeResultTtl:PT30M}")
+    private Duration resultTtl;
+
+    private final BlockingQueue<Job> queue;
+    private final Map<String, Outcome> outcomes = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private volatile boolean stopping;
+
+    public OrderIntakeServiceImpl(@Value("${spring.app.orderIntakeQueueCapacity:1000}") int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void startWorkers() {
+        executor = Executors.newFixedThreadPool(workers);
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::runWorker);
+        }
+    }
+
+    @PreDestroy
+    void stopWorkers() throws InterruptedException {
+        stopping = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+            logger.warn("Stopped order intake with {} accepted requests still queued", queue.size());
+            return;
+        }
+        // A submit that raced with the stopping flag may have queued after the workers exited
+        Job job;
+        while ((job = queue.poll()) != null) {
+            process(job);
+        }
+    }
+
+    @Override
+    public OrderIntakeDTO submit(OrderRequestDTO orderRequest) {
+        validate(orderRequest);
+
+        String requestId = UUID.randomUUID().toString();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        OrderIntakeDTO status = new OrderIntakeDTO(requestId, OrderIntakeDTO.Stage.QUEUED, null, null, null);
+        record(status, authentication.getName());
+        Job job = new Job(requestId, orderRequest, authentication);
+        if (stopping || !queue.offer(job)) {
+            outcomes.remove(requestId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Checkout is busy, please retry shortly");
+        }
+        return status;
+    }
+
+    @Override
+    public OrderIntakeDTO getStatus(String requestId) {
+        Outcome outcome = outcomes.get(requestId);
+        if (outcome == null || !outcome.owner().equals(SecurityContextHolder.getContext().getAuthentication().getName())) {
+            throw new ResourceNotFoundException("OrderRequest", "requestId", requestId);
+        }
+        OrderIntakeDTO status = outcome.status();
+        if (status.getStage() != OrderIntakeDTO.Stage.PLACED) {
+            return status;
+        }
+        // Archived orders are gone from the table; their last known status stands
+        OrderStatus orderStatus = orderRepository.findStatusById(status.getOrderId()).orElse(status.getOrderStatus());
+        return new OrderIntakeDTO(status.getRequestId(), status.getStage(), status.getOrderId(), orderStatus, null);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.orderIntakeCleanupMs:60000}")
+    public void evictOldOutcomes() {
+        long cutoff = System.currentTimeMillis() - resultTtl.toMillis();
+        outcomes.values().removeIf(o -> o.updatedAt() < cutoff
+                && o.status().getStage() != OrderIntakeDTO.Stage.QUEUED
+                && o.status().getStage() != OrderIntakeDTO.Stage.PROCESSING);
+    }
+
+    // Takes whatever has queued up (at most batchSize) per wake-up, until shutdown has begun and
+    // the queue is empty
+    private void runWorker() {
+        List<Job> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Job first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (stopping) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                batch.forEach(this::process);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(Job job) {
+        String owner = job.authentication().getName();
+        record(new OrderIntakeDTO(job.requestId(), OrderIntakeDTO.Stage.PROCESSING, null, null, null), owner);
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(job.authentication());
+        SecurityContextHolder.setContext(context);
+        try {
+            OrderDTO order = orderService.purchase(job.request());
+            record(new OrderIntakeDTO(job.requestId(), OrderIntakeDTO.Stage.PLACED,
+                    order.getOrderId(), order.getOrderStatus(), null), owner);
+        } catch (RuntimeException e) {
+            logger.debug("Queued order {} failed: {}", job.requestId(), e.getMessage());
+            record(new OrderIntakeDTO(job.requestId(), OrderIntakeDTO.Stage.FAILED, null, null, e.getMessage()), owner);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void validate(OrderRequestDTO orderRequest) {
+        if (orderRequest.getAddress() == null) {
+            throw new APIException("Address is required");
+        }
+        List<OrderItemRequestDTO> items = orderRequest.getOrderItems();
+        if (items == null || items.isEmpty()) {
+            throw new APIException("Order items cannot be empty");
+        }
+        for (OrderItemRequestDTO item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new APIException("Each order item needs a product id and a positive quantity");
+            }
+        }
+    }
+
+    private void record(OrderIntakeDTO status, String owner) {
+        outcomes.put(status.getRequestId(), new Outcome(status, owner, System.currentTimeMillis()));
+    }
+}
@@ -4,14 +4,26 @@ import com.ecommerce.project.payload.EntityResponse;
 import com.ecommerce.project.payload.OrderDTO;
 import com.ecommerce.project.payload.OrderItemRequestDTO;
 import com.ecommerce.project.payload.OrderRequestDTO;
+import com.ecommerce.project.payload.OrderSummaryDTO;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderService {
     OrderDTO placeOrder(Long addressId, List<OrderItemRequestDTO> items);
 
+    EntityResponse<OrderSummaryDTO> getUserOrderSummaries(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+
     EntityResponse<OrderDTO> getUserOrders(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
     OrderDTO purchase(OrderRequestDTO orderRequest);
 
+    OrderSummaryDTO cancelOrder(Long orderId);
+
+    int cancelLockedOrders(Collection<Long> orderIds);
+
+    boolean completePaidOrder(Long orderId);
+
+    boolean cancelUnpaidOrder(Long orderId);
+
 }
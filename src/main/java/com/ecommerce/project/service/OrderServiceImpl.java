@@ -1,5 +1,6 @@
 package com.ecommerce.project.service;
 
+import com.ecommerce.project.config.AppConstants;
 import com.ecommerce.project.exceptions.APIException;
 import com.ecommerce.project.exceptions.ResourceNotFoundException;
 import com.ecommerce.project.model.*;
@@ -16,8 +17,12 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -50,6 +55,27 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private AuthUtil authUtil;
 
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
     @Override
     @Transactional
     public OrderDTO placeOrder(Long addressId, List<OrderItemRequestDTO> items) {
@@ -58,43 +84,101 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order order = new Order();
-        order.setUser(authUtil.loggedInUser());
+        order.setUser(authUtil.loggedInUserReference());
         order.setOrderStatus(OrderStatus.PENDING);
 
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address", "AddressId", addressId));
         order.setAddress(address);
 
-        double totalPrice = items.stream()
-                .mapToDouble(itemDTO -> processOrderItem(itemDTO, order))
-                .sum();
+        Map<Long, ProductDTO> products = productRepository.findSummariesByIds(
+                        items.stream().map(OrderItemRequestDTO::getProductId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductDTO::getProductId, Function.identity()));
+
+        for (OrderItemRequestDTO itemDTO : items) {
+            ProductDTO product = products.get(itemDTO.getProductId());
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "ProductId", itemDTO.getProductId());
+            }
+            if (!flashSaleService.isOnSale(product.getProductId()) && product.getQuantity() < itemDTO.getQuantity()) {
+                throw new APIException("Insufficient stock for product: " + product.getProductName());
+            }
+
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setProduct(productRepository.getReferenceById(product.getProductId()));
+            orderItem.setQuantity(itemDTO.getQuantity());
+            orderItem.setPrice(product.getSpecialPrice() * itemDTO.getQuantity());
+            order.getOrderItems().add(orderItem);
+        }
+
+        Map<Long, String> flashSaleIds = decrementStock(items, products);
+        order.getOrderItems().forEach(orderItem ->
+                orderItem.setFlashSaleId(flashSaleIds.get(orderItem.getProduct().getProductId())));
 
-        order.setTotalPrice(totalPrice);
+        order.setTotalPrice(order.getOrderItems().stream().mapToDouble(OrderItem::getPrice).sum());
+        // Order items cascade from the order and, with sequence ids, flush as one JDBC batch
         Order savedOrder = orderRepository.save(order);
+        OrderSummary summary = orderSummaryRepository.save(toSummary(savedOrder, products));
+        outboxService.record(OrderEventType.ORDER_PLACED, List.of(summary));
+
+        List<OrderItemDTO> orderItemDTOs = new ArrayList<>(items.size());
+        for (OrderItem orderItem : savedOrder.getOrderItems()) {
+            ProductDTO product = products.get(orderItem.getProduct().getProductId());
+            orderItemDTOs.add(new OrderItemDTO(orderItem.getOrderItemId(), product,
+                    orderItem.getQuantity(), orderItem.getPrice()));
+        }
+        return toOrderDTO(savedOrder, orderItemDTOs);
+    }
+
+    @Override
+    public EntityResponse<OrderSummaryDTO> getUserOrderSummaries(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
 
-        return convertToOrderDTO(savedOrder);
+        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+        Page<OrderSummary> pageSummaries = orderSummaryRepository.findByUserId(authUtil.loggedInUserId(), pageDetails);
+
+        List<OrderSummary> summaries = pageSummaries.getContent();
+        if (summaries.isEmpty()) throw new APIException("No orders found");
+
+        EntityResponse<OrderSummaryDTO> summaryResponse = new EntityResponse<>();
+        summaryResponse.setContent(summaries.stream()
+                .map(summary -> modelMapper.map(summary, OrderSummaryDTO.class))
+                .toList());
+        summaryResponse.setPageNumber(pageSummaries.getNumber());
+        summaryResponse.setPageSize(pageSummaries.getSize());
+        summaryResponse.setTotalElements(pageSummaries.getTotalElements());
+        summaryResponse.setTotalPages(pageSummaries.getTotalPages());
+        summaryResponse.setLastPage(pageSummaries.isLast());
+
+        return summaryResponse;
     }
 
     @Override
     public EntityResponse<OrderDTO> getUserOrders(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        Long userId = authUtil.loggedInUserId();
         String email = authUtil.loggedInEmail();
 
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
 
+        int archivedCount = orderArchiveService.countForUser(userId);
+        if (archivedCount > 0) {
+            return getUserOrdersWithArchive(userId, email, archivedCount, pageNumber, pageSize, sortBy, sortByAndOrder);
+        }
+
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
         Page<Order> pageOrders = orderRepository.findAllByEmail(email, pageDetails);
 
         List<Order> orders = pageOrders.getContent();
         if (orders.isEmpty()) throw new APIException("No orders found");
 
-        List<OrderDTO> orderDTOS = orders.stream()
-                .map(this::convertToOrderDTO)
-                .toList();
-
         EntityResponse<OrderDTO> orderResponse = new EntityResponse<>();
-        orderResponse.setContent(orderDTOS);
+        orderResponse.setContent(toOrderDTOs(orders));
         orderResponse.setPageNumber(pageOrders.getNumber());
         orderResponse.setPageSize(pageOrders.getSize());
         orderResponse.setTotalElements(pageOrders.getTotalElements());
@@ -104,11 +188,93 @@ public class OrderServiceImpl implements OrderService {
         return orderResponse;
     }
 
+    /*
+     * Archived orders are older than every live one, so by date the user's history is the live
+     * orders followed by the archived ones (or the reverse when ascending). The page is cut across
+     * the two as if they were one list. No other order holds across the two, so it is refused.
+     */
+    private EntityResponse<OrderDTO> getUserOrdersWithArchive(Long userId, String email, int archivedCount, Integer pageNumber,
+                                                              Integer pageSize, String sortBy, Sort sort) {
+        if (!sortBy.equals(AppConstants.SORT_BY_ORDER_DATE)) {
+            throw new APIException("Order history with archived orders can only be sorted by "
+                    + AppConstants.SORT_BY_ORDER_DATE);
+        }
+        boolean ascending = sort.stream().allMatch(Sort.Order::isAscending);
+        boolean archivedFirst = ascending;
+        long liveCount = orderRepository.countByUserEmail(email);
+        long total = liveCount + archivedCount;
+        long start = (long) pageNumber * pageSize;
+        long end = Math.min(total, start + pageSize);
+        if (start >= end) throw new APIException("No orders found");
+
+        long firstCount = archivedFirst ? archivedCount : liveCount;
+        List<OrderDTO> content = new ArrayList<>(pageSize);
+        if (start < firstCount) {
+            int limit = (int) (Math.min(end, firstCount) - start);
+            content.addAll(archivedFirst
+                    ? orderArchiveService.findForUser(userId, false, start, limit)
+                    : toOrderDTOs(findLiveOrders(email, start, limit, sort)));
+        }
+        if (end > firstCount) {
+            long offset = Math.max(start, firstCount) - firstCount;
+            int limit = (int) (end - Math.max(start, firstCount));
+            content.addAll(archivedFirst
+                    ? toOrderDTOs(findLiveOrders(email, offset, limit, sort))
+                    : orderArchiveService.findForUser(userId, !ascending, offset, limit));
+        }
+
+        EntityResponse<OrderDTO> orderResponse = new EntityResponse<>();
+        orderResponse.setContent(content);
+        orderResponse.setPageNumber(pageNumber);
+        orderResponse.setPageSize(pageSize);
+        orderResponse.setTotalElements(total);
+        orderResponse.setTotalPages((int) ((total + pageSize - 1) / pageSize));
+        orderResponse.setLastPage(end >= total);
+
+        return orderResponse;
+    }
+
+    // Live orders at an arbitrary offset, read through at most two pages of the regular query
+    private List<Order> findLiveOrders(String email, long offset, int limit, Sort sort) {
+        int page = (int) (offset / limit);
+        int skip = (int) (offset % limit);
+        Page<Order> first = orderRepository.findAllByEmail(email, PageRequest.of(page, limit, sort));
+        List<Order> orders = new ArrayList<>(first.getContent().subList(Math.min(skip, first.getNumberOfElements()),
+                first.getNumberOfElements()));
+        if (skip > 0 && first.hasNext()) {
+            List<Order> next = orderRepository.findAllByEmail(email, PageRequest.of(page + 1, limit, sort)).getContent();
+            orders.addAll(next.subList(0, Math.min(skip, next.size())));
+        }
+        return orders;
+    }
+
+    // Page of orders (with address), then every item of those orders in one projection query
+    private List<OrderDTO> toOrderDTOs(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, List<OrderItemDTO>> itemsByOrder = orderItemRepository
+                .findRowsByOrderIds(orders.stream().map(Order::getOrderId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemRow::getOrderId,
+                        Collectors.mapping(OrderItemRow::toOrderItemDTO, Collectors.toList())));
+
+        return orders.stream()
+                .map(order -> toOrderDTO(order, itemsByOrder.getOrDefault(order.getOrderId(), new ArrayList<>())))
+                .toList();
+    }
+
     @Override
     @Transactional
     public OrderDTO purchase(OrderRequestDTO orderRequest) {
         Address address = resolveAddress(orderRequest);
 
+        if (stockReservationService.isEnabled()) {
+            // Hand reserved units back to stock before any product is loaded; placeOrder takes them again
+            stockReservationService.releaseForCheckout(authUtil.loggedInUserId(),
+                    orderRequest.getOrderItems().stream().map(OrderItemRequestDTO::getProductId).toList());
+        }
+
         String email = authUtil.loggedInEmail();
         Optional<Cart> cartOptional = cartRepository.findCartByEmail(email);
 
@@ -134,6 +300,7 @@ public class OrderServiceImpl implements OrderService {
         }).toList();
 
         OrderDTO order = placeOrder(address.getAddressId(), orderItemRequests);
+        paymentService.startPayment(order.getOrderId(), order.getTotalPrice(), orderRequest.getPaymentMethod());
 
         cartOptional.ifPresent(cart -> {
             cartItemsToRemove.forEach(cart::removeCartItem);
@@ -143,6 +310,60 @@ public class OrderServiceImpl implements OrderService {
         return order;
     }
 
+    @Override
+    @Transactional
+    public OrderSummaryDTO cancelOrder(Long orderId) {
+        Long userId = authUtil.loggedInUserId();
+        OrderSummary summary = orderSummaryRepository.findById(orderId)
+                .filter(s -> s.getUserId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "orderId", orderId));
+
+        if (orderRepository.lockPendingOrder(orderId, userId).isEmpty()) {
+            throw new APIException("Only pending orders can be cancelled");
+        }
+        // Updates the summary loaded above, which is the same managed instance
+        cancelLockedOrders(List.of(orderId));
+        return modelMapper.map(summary, OrderSummaryDTO.class);
+    }
+
+    /**
+     * Cancels orders whose rows the caller has already locked as PENDING. Stock for the whole
+     * batch goes back in one grouped UPDATE, after locking the products in id order like checkout does.
+     */
+    @Override
+    @Transactional
+    public int cancelLockedOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        productRepository.lockProductsForOrders(orderIds);
+        productRepository.restoreStockForOrders(orderIds);
+        List<OrderSummary> summaries = orderSummaryRepository.findAllById(orderIds);
+        summaries.forEach(summary -> summary.setOrderStatus(OrderStatus.CANCELLED));
+        outboxService.record(OrderEventType.ORDER_CANCELLED, summaries);
+        return orderRepository.updateStatus(orderIds, OrderStatus.CANCELLED);
+    }
+
+    @Override
+    @Transactional
+    public boolean completePaidOrder(Long orderId) {
+        if (orderRepository.lockPendingOrder(orderId).isEmpty()) {
+            return false;
+        }
+        orderSummaryRepository.updateStatus(List.of(orderId), OrderStatus.COMPLETED);
+        orderRepository.updateStatus(List.of(orderId), OrderStatus.COMPLETED);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean cancelUnpaidOrder(Long orderId) {
+        if (orderRepository.lockPendingOrder(orderId).isEmpty()) {
+            return false;
+        }
+        return cancelLockedOrders(List.of(orderId)) > 0;
+    }
+
     private Address resolveAddress(OrderRequestDTO orderRequest) {
         if (orderRequest.getAddress().getAddressId() != null) {
             return addressRepository.findById(orderRequest.getAddress().getAddressId())
@@ -152,48 +373,49 @@ public class OrderServiceImpl implements OrderService {
         return addressRepository.save(newAddress);
     }
 
-    private double processOrderItem(OrderItemRequestDTO itemDTO, Order order) {
-        Product product = productRepository.findById(itemDTO.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "ProductId", itemDTO.getProductId()));
+    // Returns, per flash-sale product, the id of the sale that admitted the units
+    private Map<Long, String> decrementStock(List<OrderItemRequestDTO> items, Map<Long, ProductDTO> products) {
+        Map<Long, Integer> quantities = items.stream()
+                .collect(Collectors.toMap(OrderItemRequestDTO::getProductId, OrderItemRequestDTO::getQuantity, Integer::sum));
 
-        if (product.getQuantity() < itemDTO.getQuantity()) {
-            throw new APIException("Insufficient stock for product: " + product.getProductName());
-        }
-
-        product.setQuantity(product.getQuantity() - itemDTO.getQuantity());
-        productRepository.save(product);
+        // Flash-sale units were moved out of the product row when the sale started
+        Map<Boolean, Map<Long, Integer>> byFlashSale = quantities.entrySet().stream()
+                .collect(Collectors.partitioningBy(e -> flashSaleService.isOnSale(e.getKey()),
+                        Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
 
-        OrderItem orderItem = new OrderItem();
-        orderItem.setOrder(order);
-        orderItem.setProduct(product);
-        orderItem.setQuantity(itemDTO.getQuantity());
-        orderItem.setPrice(product.getSpecialPrice() * itemDTO.getQuantity());
+        InventoryService.StockResult result = inventoryService.decrement(byFlashSale.get(false));
+        if (!result.isSuccessful()) {
+            throw new APIException("Insufficient stock for product: "
+                    + products.get(result.insufficientProductIds().get(0)).getProductName());
+        }
+        byFlashSale.get(false).forEach((productId, quantity) -> {
+            ProductDTO product = products.get(productId);
+            product.setQuantity(product.getQuantity() - quantity);
+        });
 
-        order.getOrderItems().add(orderItem);
-        orderItemRepository.save(orderItem);
-        return orderItem.getPrice();
+        Map<Long, String> flashSaleIds = new HashMap<>();
+        byFlashSale.get(true).forEach((productId, quantity) -> {
+            String saleId = flashSaleService.tryAdmit(productId, quantity);
+            if (saleId == null) {
+                throw new APIException("Insufficient stock for product: " + products.get(productId).getProductName());
+            }
+            flashSaleIds.put(productId, saleId);
+        });
+        return flashSaleIds;
     }
 
-    private OrderDTO convertToOrderDTO(Order order) {
-        OrderDTO orderDTO = modelMapper.map(order, OrderDTO.class);
-
-        List<OrderItemDTO> orderItemDTOs = order.getOrderItems().stream()
-                .map(this::convertToOrderItemDTO)
-                .collect(Collectors.toList());
-        orderDTO.setOrderItems(orderItemDTOs);
-
-        return orderDTO;
+    private OrderSummary toSummary(Order order, Map<Long, ProductDTO> products) {
+        OrderItem first = order.getOrderItems().get(0);
+        ProductDTO firstProduct = products.get(first.getProduct().getProductId());
+        int itemCount = order.getOrderItems().stream().mapToInt(OrderItem::getQuantity).sum();
+        return new OrderSummary(order.getOrderId(), order.getUser().getUserId(), order.getOrderDate(),
+                order.getOrderStatus(), order.getTotalPrice(), itemCount,
+                firstProduct.getProductName(), firstProduct.getImageUrl());
     }
 
-    private OrderItemDTO convertToOrderItemDTO(OrderItem orderItem) {
-        ProductDTO productDTO = modelMapper.map(orderItem.getProduct(), ProductDTO.class);
-
-        OrderItemDTO orderItemDTO = new OrderItemDTO();
-        orderItemDTO.setOrderItemId(orderItem.getOrderItemId());
-        orderItemDTO.setProductDTO(productDTO);
-        orderItemDTO.setQuantity(orderItem.getQuantity());
-        orderItemDTO.setPrice(orderItem.getPrice());
-
-        return orderItemDTO;
+    private OrderDTO toOrderDTO(Order order, List<OrderItemDTO> orderItems) {
+        AddressDTO address = order.getAddress() == null ? null : modelMapper.map(order.getAddress(), AddressDTO.class);
+        return new OrderDTO(order.getOrderId(), order.getOrderDate(), order.getOrderStatus(),
+                order.getTotalPrice(), address, orderItems);
     }
 }
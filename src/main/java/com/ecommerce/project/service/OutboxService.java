@@ -0,0 +1,15 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.OrderEventType;
+import com.ecommerce.project.model.OrderSummary;
+import com.ecommerce.project.payload.OutboxStatsDTO;
+
+import java.util.Collection;
+
+public interface OutboxService {
+    void record(OrderEventType eventType, Collection<OrderSummary> orders);
+
+    int relay();
+
+    OutboxStatsDTO getStats();
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.OrderEventType;
+import com.ecommerce.project.model.OrderSummary;
+import com.ecommerce.project.model.OutboxEvent;
+import com.ecommerce.project.payload.OutboxStatsDTO;
+import com.ecommerce.project.repositories.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for order events. Events are inserted in the transaction that changes the
+ * order, so they exist exactly when the change commits. The relay claims the oldest events in
+ * batches with SKIP LOCKED, hands them to the sink and deletes them in the same transaction;
+ * a failing sink rolls the batch back and it is retried on the next run (at-least-once).
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderEventSink sink;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.app.outboxBatchSize:200}")
+    private int batchSize;
+
+    @Value("${spring.app.outboxMaxBatchesPerRun:50}")
+    private int maxBatchesPerRun;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong eventsRelayed = new AtomicLong();
+    private final AtomicLong batchesRelayed = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+    private final AtomicInteger maxBatchSize = new AtomicInteger();
+    private final AtomicLong lastRelayLagMs = new AtomicLong();
+    private final AtomicLong maxRelayLagMs = new AtomicLong();
+
+    @Autowired
+    public OutboxServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void record(OrderEventType eventType, Collection<OrderSummary> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = orders.stream()
+                .map(order -> new OutboxEvent(null, eventType, order.getOrderId(), toJson(order), now))
+                .toList();
+        outboxEventRepository.saveAll(events);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.outboxRelayIntervalMs:1000}")
+    public void relayOnSchedule() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            logger.warn("Order event relay failed, batch will be retried", e);
+        }
+    }
+
+    @Override
+    public int relay() {
+        int relayed = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer size = transactionTemplate.execute(status -> {
+                List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize);
+                // Rollups are applied here rather than at checkout; while a rebuild runs the batch waits
+                if (events.isEmpty() || !salesRollupService.apply(events)) {
+                    return 0;
+                }
+                sink.publish(events);
+                outboxEventRepository.deleteByEventIds(events.stream().map(OutboxEvent::getEventId).toList());
+                recordBatch(events);
+                return events.size();
+            });
+
+            relayed += size;
+            if (size < batchSize) {
+                break;
+            }
+        }
+        return relayed;
+    }
+
+    @Override
+    public OutboxStatsDTO getStats() {
+        long pending = outboxEventRepository.count();
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+        long oldestAgeMs = oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis();
+        long batches = batchesRelayed.get();
+        long events = eventsRelayed.get();
+        return new OutboxStatsDTO(pending, oldestAgeMs, events, batches, lastBatchSize.get(), maxBatchSize.get(),
+                batches == 0 ? 0 : (double) events / batches, lastRelayLagMs.get(), maxRelayLagMs.get(),
+                failedBatches.get());
+    }
+
+    private void recordBatch(List<OutboxEvent> events) {
+        long lagMs = Duration.between(events.get(0).getCreatedAt(), LocalDateTime.now()).toMillis();
+        eventsRelayed.addAndGet(events.size());
+        batchesRelayed.incrementAndGet();
+        lastBatchSize.set(events.size());
+        maxBatchSize.accumulateAndGet(events.size(), Math::max);
+        lastRelayLagMs.set(lagMs);
+        maxRelayLagMs.accumulateAndGet(lagMs, Math::max);
+    }
+
+    private String toJson(OrderSummary order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order event", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.project.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remote payment provider. Implementations must not block the caller: the returned future is
+ * completed by the gateway's own I/O, and completes exceptionally on transport errors.
+ */
+public interface PaymentGateway {
+
+    record AuthorizationRequest(Long paymentId, Long orderId, Double amount, String paymentMethod) {
+    }
+
+    record AuthorizationResult(boolean approved, String pgPaymentId, String pgStatus, String message) {
+    }
+
+    String name();
+
+    CompletableFuture<AuthorizationResult> authorize(AuthorizationRequest request);
+}
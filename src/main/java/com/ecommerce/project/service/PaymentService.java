@@ -0,0 +1,9 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.PaymentDTO;
+
+public interface PaymentService {
+    void startPayment(Long orderId, Double amount, String paymentMethod);
+
+    PaymentDTO getPaymentForOrder(Long orderId);
+}
@@ -0,0 +1,224 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.ResourceNotFoundException;
+import com.ecommerce.project.model.Payment;
+import com.ecommerce.project.model.PaymentStatus;
+import com.ecommerce.project.payload.PaymentDTO;
+import com.ecommerce.project.repositories.OrderSummaryRepository;
+import com.ecommerce.project.repositories.PaymentRepository;
+import com.ecommerce.project.util.AuthUtil;
+import com.ecommerce.project.util.RetryBudget;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payment stage that runs after checkout commits. A payment row is written with the order and
+ * dispatched once the transaction commits; the gateway call is asynchronous with a hard timeout,
+ * so no request thread waits on it. A semaphore bulkhead caps in-flight authorizations: when it is
+ * full the payment simply stays PENDING and the scheduled dispatcher claims it later. Failed calls
+ * are retried with backoff while the retry budget allows. Approval completes the order; a decline
+ * or exhausted retries cancel it and return its stock.
+ */
+@Service
+public class PaymentServiceImpl implements PaymentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentServiceImpl.class);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    // No default: startup fails unless spring.app.paymentGateway selects an implementation
+    @Autowired
+    private PaymentGateway paymentGateway;
+
+    // OrderService starts payments, so it is resolved lazily to break the cycle
+    @Lazy
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
+    @Autowired
+    private AuthUtil authUtil;
+
+    @Value("${spring.app.paymentTimeoutMs:3000}")
+    private long timeoutMs;
+
+    @Value("${spring.app.paymentMaxAttempts:3}")
+    private int maxAttempts;
+
+    @Value("${spring.app.paymentRetryBackoffMs:2000}")
+    private long retryBackoffMs;
+
+    @Value("${spring.app.paymentCompletionThreads:2}")
+    private int completionThreads;
+
+    private final Semaphore bulkhead;
+    private final RetryBudget retryBudget;
+    private final TransactionTemplate transactionTemplate;
+    private ExecutorService completionExecutor;
+
+    @Autowired
+    public PaymentServiceImpl(PlatformTransactionManager transactionManager,
+                              @Value("${spring.app.paymentMaxConcurrent:32}") int maxConcurrent,
+                              @Value("${spring.app.paymentRetryRatio:0.1}") double retryRatio) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.retryBudget = new RetryBudget(retryRatio, Math.max(1, maxConcurrent * retryRatio));
+    }
+
+    @PostConstruct
+    void startExecutor() {
+        completionExecutor = Executors.newFixedThreadPool(completionThreads);
+    }
+
+    @PreDestroy
+    void stopExecutor() throws InterruptedException {
+        completionExecutor.shutdown();
+        completionExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void startPayment(Long orderId, Double amount, String paymentMethod) {
+        Payment payment = paymentRepository.save(new Payment(null, orderId, amount,
+                paymentMethod == null ? "CARD" : paymentMethod, PaymentStatus.PENDING, 0,
+                LocalDateTime.now(), null, null, null, null, LocalDateTime.now()));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(payment.getPaymentId());
+                }
+            });
+        } else {
+            dispatch(payment.getPaymentId());
+        }
+    }
+
+    @Override
+    public PaymentDTO getPaymentForOrder(Long orderId) {
+        Long userId = authUtil.loggedInUserId();
+        orderSummaryRepository.findById(orderId)
+                .filter(summary -> summary.getUserId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "orderId", orderId));
+        Payment payment = paymentRepository.findByOrderId(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment", "orderId", orderId));
+        return modelMapper.map(payment, PaymentDTO.class);
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.paymentDispatchIntervalMs:1000}")
+    public void dispatchDue() {
+        int permits = bulkhead.drainPermits();
+        if (permits == 0) {
+            return;
+        }
+        List<Payment> claimed;
+        try {
+            claimed = paymentRepository.claimDue(LocalDateTime.now(), leaseUntil(), permits);
+        } catch (RuntimeException e) {
+            bulkhead.release(permits);
+            throw e;
+        }
+        bulkhead.release(permits - claimed.size());
+        claimed.forEach(this::authorize);
+    }
+
+    private void dispatch(Long paymentId) {
+        if (!bulkhead.tryAcquire()) {
+            return;
+        }
+        try {
+            paymentRepository.claim(paymentId, leaseUntil()).ifPresentOrElse(this::authorize, bulkhead::release);
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            logger.warn("Could not dispatch payment {}, leaving it for the dispatcher", paymentId, e);
+        }
+    }
+
+    // Caller holds a bulkhead permit, released when the gateway call settles
+    private void authorize(Payment payment) {
+        if (payment.getAttempts() == 1) {
+            retryBudget.recordAttempt();
+        }
+        PaymentGateway.AuthorizationRequest request = new PaymentGateway.AuthorizationRequest(
+                payment.getPaymentId(), payment.getOrderId(), payment.getAmount(), payment.getPaymentMethod());
+
+        CompletableFuture<PaymentGateway.AuthorizationResult> pending;
+        try {
+            pending = paymentGateway.authorize(request);
+        } catch (RuntimeException e) {
+            // Settle a synchronous failure like an asynchronous one so the permit is released
+            pending = CompletableFuture.failedFuture(e);
+        }
+        pending.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> bulkhead.release())
+                .whenCompleteAsync((result, error) -> {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> complete(payment, result, error));
+                    } catch (RuntimeException e) {
+                        // The lease expires and the dispatcher claims the payment again
+                        logger.error("Could not record outcome of payment {}", payment.getPaymentId(), e);
+                    }
+                }, completionExecutor);
+    }
+
+    private void complete(Payment payment, PaymentGateway.AuthorizationResult result, Throwable error) {
+        payment.setPgName(paymentGateway.name());
+        if (error != null) {
+            payment.setPgResponseMessage(String.valueOf(error.getMessage()));
+            if (payment.getAttempts() < maxAttempts && retryBudget.tryRetry()) {
+                payment.setStatus(PaymentStatus.PENDING);
+                payment.setNextAttemptAt(LocalDateTime.now()
+                        .plus(Duration.ofMillis(retryBackoffMs << (payment.getAttempts() - 1))));
+                paymentRepository.save(payment);
+                return;
+            }
+            payment.setStatus(PaymentStatus.FAILED);
+        } else {
+            payment.setPgPaymentId(result.pgPaymentId());
+            payment.setPgStatus(result.pgStatus());
+            payment.setPgResponseMessage(result.message());
+            payment.setStatus(result.approved() ? PaymentStatus.APPROVED : PaymentStatus.DECLINED);
+        }
+        paymentRepository.save(payment);
+
+        if (payment.getStatus() == PaymentStatus.APPROVED) {
+            if (!orderService.completePaidOrder(payment.getOrderId())) {
+                logger.warn("Payment {} approved for order {} that is no longer pending; it needs a refund",
+                        payment.getPaymentId(), payment.getOrderId());
+            }
+        } else {
+            orderService.cancelUnpaidOrder(payment.getOrderId());
+        }
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plus(Duration.ofMillis(timeoutMs * 2));
+    }
+}
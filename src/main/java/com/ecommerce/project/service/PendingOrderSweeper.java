@@ -0,0 +1,92 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.repositories.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class PendingOrderSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingOrderSweeper.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${spring.app.pendingOrderSweepEnabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.app.pendingOrderTimeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${spring.app.pendingOrderSweepChunkSize:200}")
+    private int chunkSize;
+
+    @Value("${spring.app.pendingOrderSweepMaxChunks:100}")
+    private int maxChunks;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public PendingOrderSweeper(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record SweepResult(int ordersCancelled, int chunks, long elapsedMs) {
+        public double ordersPerSecond() {
+            return elapsedMs == 0 ? ordersCancelled : ordersCancelled * 1000.0 / elapsedMs;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.pendingOrderSweepIntervalMs:60000}",
+            initialDelayString = "${spring.app.pendingOrderSweepInitialDelayMs:60000}")
+    public void sweepOnSchedule() {
+        if (!enabled) {
+            return;
+        }
+        SweepResult result = sweep();
+        if (result.ordersCancelled() > 0) {
+            logger.info("Pending order sweep cancelled {} orders in {} chunks, {} ms ({} orders/s)",
+                    result.ordersCancelled(), result.chunks(), result.elapsedMs(),
+                    String.format("%.1f", result.ordersPerSecond()));
+        }
+    }
+
+    /**
+     * Cancels orders left PENDING past the timeout and returns their stock, one transaction
+     * per chunk. Chunks are claimed with SKIP LOCKED, so several nodes can sweep side by side.
+     */
+    public SweepResult sweep() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minus(timeout);
+        int cancelled = 0;
+        int chunks = 0;
+
+        for (; chunks < maxChunks; chunks++) {
+            int[] result = transactionTemplate.execute(status -> {
+                List<Long> orderIds = orderRepository.lockExpiredPendingOrderIds(cutoff, chunkSize);
+                return new int[]{orderService.cancelLockedOrders(orderIds), orderIds.size()};
+            });
+
+            cancelled += result[0];
+            if (result[1] < chunkSize) {
+                chunks++;
+                break;
+            }
+        }
+
+        return new SweepResult(cancelled, chunks, (System.nanoTime() - start) / 1_000_000);
+    }
+}
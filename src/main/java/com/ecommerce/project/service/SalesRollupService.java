@@ -0,0 +1,19 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.OutboxEvent;
+import com.ecommerce.project.model.RollupDimension;
+import com.ecommerce.project.model.RollupGranularity;
+import com.ecommerce.project.payload.RollupBackfillDTO;
+import com.ecommerce.project.payload.SalesRollupDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SalesRollupService {
+    boolean apply(List<OutboxEvent> events);
+
+    List<SalesRollupDTO> getSales(RollupGranularity granularity, RollupDimension dimension, Long dimensionId,
+                                  LocalDateTime from, LocalDateTime to);
+
+    RollupBackfillDTO rebuild();
+}
@@ -0,0 +1,181 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.model.OrderEventType;
+import com.ecommerce.project.model.OutboxEvent;
+import com.ecommerce.project.model.RollupDimension;
+import com.ecommerce.project.model.RollupGranularity;
+import com.ecommerce.project.model.SalesRollup;
+import com.ecommerce.project.payload.RollupBackfillDTO;
+import com.ecommerce.project.payload.SalesRollupDTO;
+import com.ecommerce.project.repositories.ArchiveWatermarkRepository;
+import com.ecommerce.project.repositories.SalesRollupRepository;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Hourly and daily revenue, units and order counts per category and per seller. The outbox relay
+ * applies each batch of order events as a handful of set-based upserts in its own transaction, so
+ * checkout never touches the (hot) rollup rows and every event is counted exactly once. A rebuild
+ * takes an exclusive advisory lock that pauses the relay's rollup work on every node while it
+ * recomputes the table from orders in parallel id-range chunks and swaps the result in.
+ */
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupServiceImpl.class);
+    private static final long ROLLUP_LOCK_KEY = 4_204_201L;
+    private static final String REBUILD_FROM = "SELECT GREATEST(" +
+            "(SELECT date_trunc('day', MIN(order_date)) FROM orders), " +
+            "(SELECT archived_before FROM archive_watermarks WHERE name = '" + ArchiveWatermarkRepository.ORDERS + "'))";
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ModelMapper modelMapper;
+
+    @Value("${spring.app.rollupBackfillChunkSize:5000}")
+    private long chunkSize;
+
+    @Value("${spring.app.rollupBackfillThreads:4}")
+    private int threads;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public SalesRollupServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Must run inside the relay's transaction; returns false while a rebuild holds the rollups. */
+    @Override
+    public boolean apply(List<OutboxEvent> events) {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock_shared(?)",
+                Boolean.class, ROLLUP_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            return false;
+        }
+
+        Map<OrderEventType, List<Long>> orderIds = events.stream().collect(Collectors.groupingBy(
+                OutboxEvent::getEventType, Collectors.mapping(OutboxEvent::getOrderId, Collectors.toList())));
+        List<Long> placed = orderIds.getOrDefault(OrderEventType.ORDER_PLACED, List.of());
+        List<Long> cancelled = orderIds.getOrDefault(OrderEventType.ORDER_CANCELLED, List.of());
+        if (!placed.isEmpty()) {
+            salesRollupRepository.applyOrders(placed, 1);
+        }
+        if (!cancelled.isEmpty()) {
+            salesRollupRepository.applyOrders(cancelled, -1);
+        }
+        return true;
+    }
+
+    @Override
+    public List<SalesRollupDTO> getSales(RollupGranularity granularity, RollupDimension dimension, Long dimensionId,
+                                         LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new APIException("'from' must be before 'to'");
+        }
+        List<SalesRollup> rollups = dimensionId == null
+                ? salesRollupRepository.findBuckets(granularity, dimension, from, to)
+                : salesRollupRepository.findBuckets(granularity, dimension, dimensionId, from, to);
+        return rollups.stream()
+                .map(rollup -> modelMapper.map(rollup, SalesRollupDTO.class))
+                .toList();
+    }
+
+    @Override
+    public RollupBackfillDTO rebuild() {
+        // The session-level lock lives on this connection for the whole rebuild
+        return jdbcTemplate.execute((ConnectionCallback<RollupBackfillDTO>) connection -> {
+            if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                throw new APIException("Sales rollups are busy, please retry shortly");
+            }
+            try {
+                return rebuildLocked();
+            } finally {
+                advisoryLock(connection, "pg_advisory_unlock");
+            }
+        });
+    }
+
+    // Chunks are computed in parallel into an unlogged staging table; the live buckets are then
+    // replaced in a single transaction, so readers see the old totals until the new ones commit.
+    private RollupBackfillDTO rebuildLocked() {
+        long start = System.nanoTime();
+        Long minId = jdbcTemplate.queryForObject("SELECT MIN(order_id) FROM orders", Long.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(order_id) FROM orders", Long.class);
+        if (minId == null) {
+            return new RollupBackfillDTO(0, 0, elapsedMs(start));
+        }
+        jdbcTemplate.execute("DROP TABLE IF EXISTS sales_rollups_staging");
+        jdbcTemplate.execute("CREATE UNLOGGED TABLE sales_rollups_staging AS SELECT granularity, bucket_start, " +
+                "dimension, dimension_id, revenue, units, order_count FROM sales_rollups WITH NO DATA");
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(maxId, from + chunkSize - 1);
+                chunks.add(CompletableFuture.supplyAsync(() -> transactionTemplate.execute(
+                        status -> salesRollupRepository.stageOrderRange(chunkFrom, chunkTo)), executor));
+            }
+            chunks.forEach(CompletableFuture::join);
+
+            Integer rows = transactionTemplate.execute(status -> {
+                // Buckets before the archive watermark (or the oldest live order) may hold archived
+                // orders that can't be recomputed; keep them. Read here so an archive run that
+                // finished during the chunks is accounted for.
+                LocalDateTime rebuildFrom = jdbcTemplate.queryForObject(REBUILD_FROM, LocalDateTime.class);
+                if (rebuildFrom == null) {
+                    return 0;
+                }
+                salesRollupRepository.deleteBucketsFrom(rebuildFrom);
+                return salesRollupRepository.insertStagedBucketsFrom(rebuildFrom);
+            });
+
+            RollupBackfillDTO result = new RollupBackfillDTO(chunks.size(), rows == null ? 0 : rows, elapsedMs(start));
+            logger.info("Rebuilt sales rollups for orders {}..{}: {} chunks, {} buckets in {} ms",
+                    minId, maxId, result.getChunks(), result.getRollupRowsWritten(), result.getElapsedMs());
+            return result;
+        } finally {
+            executor.shutdownNow();
+            jdbcTemplate.execute("DROP TABLE IF EXISTS sales_rollups_staging");
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT " + function + "(" + ROLLUP_LOCK_KEY + ")")) {
+            return resultSet.next() && resultSet.getBoolean(1);
+        }
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
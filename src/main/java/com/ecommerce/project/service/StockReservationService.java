@@ -0,0 +1,13 @@
+package com.ecommerce.project.service;
+
+import java.util.Collection;
+
+public interface StockReservationService {
+    boolean isEnabled();
+
+    boolean reserve(Long cartId, Long productId, int quantity);
+
+    void release(Long cartId, Long productId);
+
+    void releaseForCheckout(Long userId, Collection<Long> productIds);
+}
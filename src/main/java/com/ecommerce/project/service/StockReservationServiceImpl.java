@@ -0,0 +1,177 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.StockReservation;
+import com.ecommerce.project.repositories.ProductRepository;
+import com.ecommerce.project.repositories.StockReservationRepository;
+import com.ecommerce.project.util.HierarchicalTimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Optional mode where adding to the cart takes the units out of product stock for a TTL.
+ * Reservations live in the stock_reservations table; their deadlines are tracked in a
+ * timing wheel and released in batches when they fire. A slower DB sweep picks up anything
+ * the wheel does not know about, e.g. reservations made by a node that has since died.
+ */
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationServiceImpl.class);
+    private static final long TICK_MS = 1000;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${spring.app.stockReservationEnabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.app.stockReservationTtl:PT15M}")
+    private Duration ttl;
+
+    @Value("${spring.app.stockReservationBatchSize:200}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final HierarchicalTimingWheel<Long> wheel =
+            new HierarchicalTimingWheel<>(TICK_MS, 64, 4, System.currentTimeMillis());
+
+    @Autowired
+    public StockReservationServiceImpl(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean reserve(Long cartId, Long productId, int quantity) {
+        StockReservation reservation = reservationRepository.findByCartIdAndProductId(cartId, productId)
+                .orElseGet(() -> new StockReservation(null, cartId, productId, 0, null));
+
+        int delta = quantity - reservation.getQuantity();
+        if (delta > 0 && productRepository.decrementStock(productId, delta) == 0) {
+            return false;
+        }
+        if (delta < 0) {
+            productRepository.incrementStock(productId, -delta);
+        }
+
+        reservation.setQuantity(quantity);
+        reservation.setExpiresAt(LocalDateTime.now().plus(ttl));
+        StockReservation saved = reservationRepository.save(reservation);
+        afterCommit(() -> wheel.schedule(saved.getReservationId(), toEpochMs(saved.getExpiresAt())));
+        return true;
+    }
+
+    @Override
+    public void release(Long cartId, Long productId) {
+        reservationRepository.findByCartIdAndProductId(cartId, productId).ifPresent(reservation -> {
+            List<Long> ids = List.of(reservation.getReservationId());
+            reservationRepository.restoreStock(ids);
+            reservationRepository.deleteByIds(ids);
+            afterCommit(() -> wheel.cancel(reservation.getReservationId()));
+        });
+    }
+
+    @Override
+    public void releaseForCheckout(Long userId, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = reservationRepository.lockForCheckout(userId, productIds);
+        if (!ids.isEmpty()) {
+            reservationRepository.restoreStock(ids);
+            reservationRepository.deleteByIds(ids);
+            afterCommit(() -> ids.forEach(wheel::cancel));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPersistedReservations() {
+        if (!enabled) {
+            return;
+        }
+        List<StockReservation> reservations = reservationRepository.findAll();
+        reservations.forEach(r -> wheel.schedule(r.getReservationId(), toEpochMs(r.getExpiresAt())));
+        logger.info("Scheduled {} persisted stock reservations", reservations.size());
+    }
+
+    @Scheduled(fixedDelay = TICK_MS)
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            releaseExpired(() -> reservationRepository.lockExpired(batch, LocalDateTime.now()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.stockReservationSweepMs:60000}")
+    public void sweepOverdue() {
+        if (!enabled) {
+            return;
+        }
+        int released;
+        do {
+            released = releaseExpired(() -> reservationRepository.lockOverdue(LocalDateTime.now(), batchSize));
+        } while (released == batchSize);
+    }
+
+    private int releaseExpired(Supplier<List<Long>> locker) {
+        Integer released = transactionTemplate.execute(status -> {
+            List<Long> ids = locker.get();
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            reservationRepository.restoreStock(ids);
+            reservationRepository.deleteByIds(ids);
+            return ids.size();
+        });
+        if (released != null && released > 0) {
+            logger.debug("Released {} expired stock reservations", released);
+        }
+        return released == null ? 0 : released;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toEpochMs(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.project.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Local gateway for testing that answers after a fixed latency, with configurable decline and error
+// rates. It approves without charging anyone, so it is only used when explicitly selected (the
+// "local" profile does).
+@Component
+@ConditionalOnProperty(name = "spring.app.paymentGateway", havingValue = "stub")
+public class StubPaymentGateway implements PaymentGateway {
+
+    @Value("${spring.app.stubGatewayLatencyMs:150}")
+    private long latencyMs;
+
+    @Value("${spring.app.stubGatewayDeclineRate:0.0}")
+    private double declineRate;
+
+    @Value("${spring.app.stubGatewayErrorRate:0.0}")
+    private double errorRate;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+
+    @Override
+    public CompletableFuture<AuthorizationResult> authorize(AuthorizationRequest request) {
+        CompletableFuture<AuthorizationResult> result = new CompletableFuture<>();
+        timer.schedule(() -> {
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < errorRate) {
+                result.completeExceptionally(new IllegalStateException("Stub gateway unavailable"));
+            } else if (roll < errorRate + declineRate) {
+                result.complete(new AuthorizationResult(false, null, "declined", "Card declined"));
+            } else {
+                result.complete(new AuthorizationResult(true, "stub_" + UUID.randomUUID(), "approved", "Approved"));
+            }
+        }, latencyMs, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.WaitingRoomStatusDTO;
+
+public interface WaitingRoomService {
+    boolean isEnabled();
+
+    WaitingRoomStatusDTO join(String userKey);
+
+    WaitingRoomStatusDTO status(String userKey);
+
+    boolean isAdmitted(String userKey, String admissionToken);
+}
@@ -0,0 +1,168 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.exceptions.APIException;
+import com.ecommerce.project.payload.WaitingRoomStatusDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FIFO waiting room kept entirely in memory. Joining hands out the next ticket number; a
+ * scheduled tick moves the admission line forward at the configured rate, so a user's position
+ * is just their ticket minus the line and polling costs no I/O. Admitted users get an HMAC-signed,
+ * time-limited token bound to their username, which the checkout and cart endpoints require. The
+ * admission window starts at the first poll after admission and later polls return the same
+ * token, so polling cannot extend it; once it lapses the user has to join again.
+ * <p>
+ * The signing key comes from spring.app.waitingRoomSecret. Without it each node signs with a random
+ * key of its own, so tokens only work on the node that issued them.
+ */
+@Service
+public class WaitingRoomServiceImpl implements WaitingRoomService {
+
+    private static final long TICK_MS = 100;
+    private static final String HMAC = "HmacSHA256";
+    private static final Logger logger = LoggerFactory.getLogger(WaitingRoomServiceImpl.class);
+
+    // admittedUntil is 0 until the user first sees their admission
+    private record Ticket(long number, long joinedAt, AtomicLong admittedUntil) {
+    }
+
+    @Value("${spring.app.waitingRoomEnabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.app.waitingRoomAdmitPerSecond:50}")
+    private int admitPerSecond;
+
+    @Value("${spring.app.waitingRoomTokenTtl:PT10M}")
+    private Duration tokenTtl;
+
+    private final SecretKeySpec key;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final AtomicLong lastTicket = new AtomicLong();
+    private final AtomicLong admittedUpTo = new AtomicLong();
+    private double admissionCredit;
+
+    public WaitingRoomServiceImpl(@Value("${spring.app.waitingRoomSecret:}") String secret) {
+        byte[] keyBytes = secret.isBlank() ? randomKey() : secret.getBytes(StandardCharsets.UTF_8);
+        this.key = new SecretKeySpec(keyBytes, HMAC);
+        if (secret.isBlank()) {
+            logger.info("No spring.app.waitingRoomSecret set; admission tokens are only valid on this node");
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public WaitingRoomStatusDTO join(String userKey) {
+        tickets.computeIfAbsent(userKey, k -> new Ticket(lastTicket.incrementAndGet(), System.currentTimeMillis(),
+                new AtomicLong()));
+        return status(userKey);
+    }
+
+    @Override
+    public WaitingRoomStatusDTO status(String userKey) {
+        Ticket ticket = tickets.get(userKey);
+        if (ticket == null) {
+            throw new APIException("Not in the waiting room, join first");
+        }
+        long position = ticket.number() - admittedUpTo.get();
+        if (position > 0) {
+            return new WaitingRoomStatusDTO(position, false, null, null);
+        }
+        long now = System.currentTimeMillis();
+        ticket.admittedUntil().compareAndSet(0, now + tokenTtl.toMillis());
+        long expiresAt = ticket.admittedUntil().get();
+        if (expiresAt <= now) {
+            tickets.remove(userKey, ticket);
+            throw new APIException("Admission has expired, join the waiting room again");
+        }
+        // Signing is deterministic, so every poll hands back the same token
+        return new WaitingRoomStatusDTO(0, true, sign(userKey, expiresAt), expiresAt);
+    }
+
+    @Override
+    public boolean isAdmitted(String userKey, String admissionToken) {
+        if (admissionToken == null) {
+            return false;
+        }
+        int dot = admissionToken.lastIndexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(admissionToken.substring(0, dot)), StandardCharsets.UTF_8);
+            int separator = payload.lastIndexOf(':');
+            long expiresAt = Long.parseLong(payload.substring(separator + 1));
+            return payload.substring(0, separator).equals(userKey)
+                    && expiresAt > System.currentTimeMillis()
+                    && MessageDigest.isEqual(sign(userKey, expiresAt).getBytes(StandardCharsets.US_ASCII),
+                    admissionToken.getBytes(StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    @Scheduled(fixedRate = TICK_MS)
+    public synchronized void admit() {
+        if (!enabled) {
+            return;
+        }
+        admissionCredit += admitPerSecond * TICK_MS / 1000.0;
+        long whole = (long) admissionCredit;
+        if (whole > 0) {
+            admissionCredit -= whole;
+            long waiting = lastTicket.get() - admittedUpTo.get();
+            // Unused slots are not banked, so a quiet period cannot release a burst later
+            admittedUpTo.addAndGet(Math.min(whole, Math.max(waiting, 0)));
+            if (waiting <= 0) {
+                admissionCredit = 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${spring.app.waitingRoomCleanupMs:60000}")
+    public void evictAdmittedTickets() {
+        long admitted = admittedUpTo.get();
+        long now = System.currentTimeMillis();
+        long cutoff = now - tokenTtl.toMillis();
+        tickets.values().removeIf(t -> t.number() <= admitted && (t.admittedUntil().get() == 0
+                ? t.joinedAt() < cutoff
+                : t.admittedUntil().get() <= now));
+    }
+
+    private static byte[] randomKey() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+
+    private String sign(String userKey, long expiresAt) {
+        byte[] payload = (userKey + ":" + expiresAt).getBytes(StandardCharsets.UTF_8);
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(key);
+            Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+            return encoder.encodeToString(payload) + "." + encoder.encodeToString(mac.doFinal(payload));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign admission token", e);
+        }
+    }
+}
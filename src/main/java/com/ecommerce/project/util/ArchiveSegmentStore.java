@@ -0,0 +1,266 @@
+package com.ecommerce.project.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only archive of records grouped into named segments (one per month for orders).
+ * Each segment is a {@code .seg} file of length-prefixed, individually gzipped records plus a
+ * {@code .idx} file of fixed-size entries (id, owner, timestamp, offset, length), so any record can
+ * be read back with one positioned read. Index entries are kept in memory per owner; appending
+ * the same id again supersedes the earlier copy. Lookups never block on writers or touch the
+ * directory.
+ * <p>
+ * Writes happen in two steps so they can follow a database transaction: {@link #stage} fsyncs the
+ * records and lists their index entries in a {@code .pending} file per segment, and
+ * {@link #publishPending} moves those entries into the index (or {@link #discardPending} drops
+ * them, leaving unreferenced bytes in the segment). A torn index tail is ignored on load and cut
+ * off by the next publish.
+ * <p>
+ * Several stores may share one directory as long as only one of them writes at a time; the others
+ * pick up published entries on {@link #refresh}.
+ */
+public class ArchiveSegmentStore {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String PENDING_SUFFIX = ".pending";
+    private static final int INDEX_ENTRY_BYTES = 8 + 8 + 8 + 8 + 4;
+
+    public record Entry(long id, long ownerId, long timestamp, String segment, long offset, int length) {
+    }
+
+    public record Record(long id, long ownerId, long timestamp, byte[] payload) {
+    }
+
+    private final Path directory;
+    private final Map<Long, Map<Long, Entry>> entriesByOwner = new ConcurrentHashMap<>();
+    // Bytes of each segment's index already loaded, always a whole number of entries
+    private final Map<String, Long> loadedIndexBytes = new HashMap<>();
+
+    public ArchiveSegmentStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open archive at " + directory, e);
+        }
+        refresh();
+    }
+
+    /** Loads index entries published to the directory since the last refresh. */
+    public synchronized void refresh() {
+        try (DirectoryStream<Path> indexes = Files.newDirectoryStream(directory, "*" + INDEX_SUFFIX)) {
+            for (Path index : indexes) {
+                loadIndex(index);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load archive indexes at " + directory, e);
+        }
+    }
+
+    /** Stages and publishes in one go, for callers with nothing to wait for. */
+    public synchronized void append(String segment, List<Record> records) {
+        stage(Map.of(segment, records));
+        publishPending();
+    }
+
+    /** Writes and fsyncs the records; they stay invisible until {@link #publishPending}. */
+    public synchronized void stage(Map<String, List<Record>> segments) {
+        if (!pendingIds().isEmpty()) {
+            throw new IllegalStateException("Archive at " + directory + " has staged entries that were never resolved");
+        }
+        segments.forEach((segment, records) -> {
+            if (!records.isEmpty()) {
+                writeEntries(directory.resolve(segment + PENDING_SUFFIX), writeRecords(segment, records));
+            }
+        });
+    }
+
+    public synchronized void publishPending() {
+        try {
+            for (Path pending : pendingFiles()) {
+                String segment = segmentOf(pending, PENDING_SUFFIX);
+                Path index = directory.resolve(segment + INDEX_SUFFIX);
+                writeEntries(index, readEntries(pending, segment, 0));
+                loadIndex(index);
+                Files.delete(pending);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not publish staged archive entries", e);
+        }
+    }
+
+    public synchronized void discardPending() {
+        try {
+            for (Path pending : pendingFiles()) {
+                Files.delete(pending);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not discard staged archive entries", e);
+        }
+    }
+
+    /** Ids staged but neither published nor discarded, e.g. by a writer that crashed in between. */
+    public synchronized List<Long> pendingIds() {
+        List<Long> ids = new ArrayList<>();
+        try {
+            for (Path pending : pendingFiles()) {
+                readEntries(pending, segmentOf(pending, PENDING_SUFFIX), 0).forEach(entry -> ids.add(entry.id()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read staged archive entries", e);
+        }
+        return ids;
+    }
+
+    /** Entries for one owner, oldest first. */
+    public List<Entry> entriesFor(long ownerId) {
+        List<Entry> entries = new ArrayList<>(entriesByOwner.getOrDefault(ownerId, Map.of()).values());
+        entries.sort(Comparator.comparingLong(Entry::timestamp).thenComparingLong(Entry::id));
+        return entries;
+    }
+
+    public int countFor(long ownerId) {
+        return entriesByOwner.getOrDefault(ownerId, Map.of()).size();
+    }
+
+    public byte[] read(Entry entry) {
+        try (FileChannel data = FileChannel.open(directory.resolve(entry.segment() + SEGMENT_SUFFIX),
+                StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(entry.length());
+            long position = entry.offset();
+            while (buffer.hasRemaining()) {
+                int read = data.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Archive record " + entry.id() + " is truncated");
+                }
+                position += read;
+            }
+            return decompress(buffer.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive record " + entry.id(), e);
+        }
+    }
+
+    private List<Entry> writeRecords(String segment, List<Record> records) {
+        List<Entry> entries = new ArrayList<>(records.size());
+        try (FileChannel data = FileChannel.open(directory.resolve(segment + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long offset = data.size();
+            for (Record record : records) {
+                byte[] compressed = compress(record.payload());
+                ByteBuffer buffer = ByteBuffer.allocate(4 + compressed.length);
+                buffer.putInt(compressed.length).put(compressed).flip();
+                while (buffer.hasRemaining()) {
+                    data.write(buffer);
+                }
+                entries.add(new Entry(record.id(), record.ownerId(), record.timestamp(), segment,
+                        offset + 4, compressed.length));
+                offset += 4 + compressed.length;
+            }
+            data.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to archive segment " + segment, e);
+        }
+        return entries;
+    }
+
+    // Appends after the last complete entry, so a torn tail never shifts later entries
+    private void writeEntries(Path file, List<Entry> entries) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long position = channel.size() - channel.size() % INDEX_ENTRY_BYTES;
+            channel.truncate(position);
+            ByteBuffer buffer = ByteBuffer.allocate(INDEX_ENTRY_BYTES * entries.size());
+            for (Entry entry : entries) {
+                buffer.putLong(entry.id()).putLong(entry.ownerId()).putLong(entry.timestamp())
+                        .putLong(entry.offset()).putInt(entry.length());
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive entries to " + file.getFileName(), e);
+        }
+    }
+
+    private void loadIndex(Path index) throws IOException {
+        String segment = segmentOf(index, INDEX_SUFFIX);
+        long loaded = loadedIndexBytes.getOrDefault(segment, 0L);
+        List<Entry> entries = readEntries(index, segment, loaded);
+        for (Entry entry : entries) {
+            entriesByOwner.computeIfAbsent(entry.ownerId(), owner -> new ConcurrentHashMap<>()).put(entry.id(), entry);
+        }
+        loadedIndexBytes.put(segment, loaded + (long) entries.size() * INDEX_ENTRY_BYTES);
+    }
+
+    private List<Entry> readEntries(Path file, String segment, long from) throws IOException {
+        long complete = (Files.size(file) - from) / INDEX_ENTRY_BYTES;
+        if (complete <= 0) {
+            return List.of();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(complete * INDEX_ENTRY_BYTES));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = from;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Archive index " + file.getFileName() + " shrank while loading");
+                }
+                position += read;
+            }
+        }
+        buffer.flip();
+        List<Entry> entries = new ArrayList<>((int) complete);
+        for (long i = 0; i < complete; i++) {
+            entries.add(new Entry(buffer.getLong(), buffer.getLong(), buffer.getLong(), segment,
+                    buffer.getLong(), buffer.getInt()));
+        }
+        return entries;
+    }
+
+    private List<Path> pendingFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> pending = Files.newDirectoryStream(directory, "*" + PENDING_SUFFIX)) {
+            pending.forEach(files::add);
+        }
+        return files;
+    }
+
+    private static String segmentOf(Path file, String suffix) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.length() - suffix.length());
+    }
+
+    private static byte[] compress(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
@@ -2,41 +2,65 @@ package com.ecommerce.project.util;
 
 import com.ecommerce.project.model.User;
 import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
 
+/**
+ * Id and email come straight from the authenticated principal. The User entity is only loaded
+ * when a caller needs it, and then at most once per request; outside a request (e.g. the async
+ * checkout workers) it is loaded on every call.
+ */
 @Component
 public class AuthUtil {
 
     @Autowired
     UserRepository userRepository;
 
-    public String loggedInEmail(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+    @Autowired
+    CurrentUserHolder currentUserHolder;
 
-        return user.getEmail();
+    public String loggedInEmail(){
+        UserDetailsImpl principal = principal();
+        return principal != null ? principal.getEmail() : loggedInUser().getEmail();
     }
 
     public Long loggedInUserId(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-
-        return user.getUserId();
+        UserDetailsImpl principal = principal();
+        return principal != null ? principal.getId() : loggedInUser().getUserId();
     }
 
     public User loggedInUser(){
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        boolean inRequest = RequestContextHolder.getRequestAttributes() != null;
 
-        return userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-
+        User user = inRequest ? currentUserHolder.get(username) : null;
+        if (user == null) {
+            user = userRepository.findByUserName(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+            if (inRequest) {
+                currentUserHolder.set(username, user);
+            }
+        }
+        return user;
     }
 
+    // For associations that only need the foreign key; no query is issued
+    public User loggedInUserReference(){
+        return userRepository.getReferenceById(loggedInUserId());
+    }
 
-}
\ No newline at end of file
+    private UserDetailsImpl principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl principal
+                && principal.getId() != null && principal.getEmail() != null) {
+            return principal;
+        }
+        return null;
+    }
+}
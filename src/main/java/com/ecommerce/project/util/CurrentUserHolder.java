@@ -0,0 +1,23 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.model.User;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+// The current user's entity, loaded at most once per HTTP request
+@Component
+@RequestScope
+public class CurrentUserHolder {
+
+    private String username;
+    private User user;
+
+    public User get(String username) {
+        return username.equals(this.username) ? user : null;
+    }
+
+    public void set(String username, User user) {
+        this.username = username;
+        this.user = user;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.project.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timing wheel keyed by an id. Level {@code i} has {@code wheelSize} buckets of
+ * {@code tickMs * wheelSize^i} each; scheduling and cancelling are O(1), and far deadlines
+ * cascade down one level at a time as the wheel turns. Deadlines are rounded up to a tick.
+ * Scheduling a key that is already present replaces its deadline.
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final List<List<Set<K>>> levels;
+    private final Map<K, Slot> slots = new HashMap<>();
+    private final List<K> expired = new ArrayList<>();
+    private long currentTime;
+
+    private record Slot(long deadline, int level, int index) {
+    }
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levelCount, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levelCount];
+        this.levels = new ArrayList<>(levelCount);
+        long levelTick = tickMs;
+        for (int level = 0; level < levelCount; level++) {
+            levelTicks[level] = levelTick;
+            List<Set<K>> buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new LinkedHashSet<>());
+            }
+            levels.add(buckets);
+            levelTick *= wheelSize;
+        }
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    public synchronized void schedule(K key, long deadlineMs) {
+        cancel(key);
+        long remainder = Math.floorMod(deadlineMs, tickMs);
+        place(key, remainder == 0 ? deadlineMs : deadlineMs + tickMs - remainder);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Slot slot = slots.remove(key);
+        if (slot == null) {
+            return expired.remove(key);
+        }
+        levels.get(slot.level()).get(slot.index()).remove(key);
+        return true;
+    }
+
+    public synchronized int size() {
+        return slots.size() + expired.size();
+    }
+
+    /** Turns the wheel up to {@code nowMs} and returns every key whose deadline has passed. */
+    public synchronized List<K> advance(long nowMs) {
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            for (int level = levelTicks.length - 1; level >= 1; level--) {
+                if (currentTime % levelTicks[level] == 0) {
+                    cascade(level, bucketIndex(level, currentTime));
+                }
+            }
+            cascade(0, bucketIndex(0, currentTime));
+        }
+        List<K> due = new ArrayList<>(expired);
+        expired.clear();
+        return due;
+    }
+
+    private void cascade(int level, int index) {
+        Set<K> bucket = levels.get(level).get(index);
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(bucket);
+        bucket.clear();
+        for (K key : keys) {
+            place(key, slots.remove(key).deadline());
+        }
+    }
+
+    private void place(K key, long deadline) {
+        if (deadline <= currentTime) {
+            expired.add(key);
+            return;
+        }
+        int top = levelTicks.length - 1;
+        for (int level = 0; level <= top; level++) {
+            long distance = Math.floorDiv(deadline, levelTicks[level]) - Math.floorDiv(currentTime, levelTicks[level]);
+            if (distance < wheelSize) {
+                int index = bucketIndex(level, deadline);
+                levels.get(level).get(index).add(key);
+                slots.put(key, new Slot(deadline, level, index));
+                return;
+            }
+        }
+        // Beyond the top level's span: park in the last bucket of this rotation and re-place later
+        int index = (int) Math.floorMod(Math.floorDiv(currentTime, levelTicks[top]) + wheelSize - 1, (long) wheelSize);
+        levels.get(top).get(index).add(key);
+        slots.put(key, new Slot(deadline, top, index));
+    }
+
+    private int bucketIndex(int level, long time) {
+        return (int) Math.floorMod(Math.floorDiv(time, levelTicks[level]), (long) wheelSize);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.project.util;
+
+/**
+ * Caps retries at a fraction of first attempts, so a struggling dependency sees at most
+ * {@code 1 + ratio} times its normal load instead of a retry storm. Every first attempt
+ * deposits {@code ratio} tokens, every retry spends one; the balance is capped at {@code maxTokens}.
+ * Tokens are counted in thousandths so repeated deposits add up exactly.
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long max;
+    private long balance;
+
+    public RetryBudget(double ratio, double maxTokens) {
+        this.deposit = Math.round(ratio * SCALE);
+        this.max = Math.round(maxTokens * SCALE);
+        this.balance = max;
+    }
+
+    public synchronized void recordAttempt() {
+        balance = Math.min(max, balance + deposit);
+    }
+
+    public synchronized boolean tryRetry() {
+        if (balance < SCALE) {
+            return false;
+        }
+        balance -= SCALE;
+        return true;
+    }
+
+    public synchronized double availableTokens() {
+        return (double) balance / SCALE;
+    }
+}
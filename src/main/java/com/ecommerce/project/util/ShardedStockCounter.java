@@ -0,0 +1,80 @@
+package com.ecommerce.project.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock split across shards so concurrent buyers mostly CAS different slots, LongAdder-style.
+ * A buyer starts at a random shard and moves on when it cannot cover the request, so units
+ * left in any shard can still be sold. Units never go negative and never exceed what was added.
+ */
+public class ShardedStockCounter {
+
+    // Shards sit 8 longs apart so two hot shards never share a cache line
+    private static final int STRIDE = 8;
+
+    private final int shards;
+    private final AtomicLongArray cells;
+
+    public ShardedStockCounter(long units, int shards) {
+        this.shards = shards;
+        this.cells = new AtomicLongArray(shards * STRIDE);
+        for (int i = 0; i < shards; i++) {
+            cells.set(i * STRIDE, units / shards + (i < units % shards ? 1 : 0));
+        }
+    }
+
+    public boolean tryAcquire(int units) {
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (takeFrom((start + i) % shards, units)) {
+                return true;
+            }
+        }
+        // Enough units may exist in total but no single shard covers them; take them piecemeal
+        return takeAcrossShards(units);
+    }
+
+    public void release(int units) {
+        cells.addAndGet(ThreadLocalRandom.current().nextInt(shards) * STRIDE, units);
+    }
+
+    public long available() {
+        long total = 0;
+        for (int i = 0; i < shards; i++) {
+            total += cells.get(i * STRIDE);
+        }
+        return total;
+    }
+
+    private boolean takeFrom(int shard, int units) {
+        int index = shard * STRIDE;
+        long current;
+        do {
+            current = cells.get(index);
+            if (current < units) {
+                return false;
+            }
+        } while (!cells.compareAndSet(index, current, current - units));
+        return true;
+    }
+
+    private synchronized boolean takeAcrossShards(int units) {
+        long taken = 0;
+        for (int i = 0; i < shards && taken < units; i++) {
+            int index = i * STRIDE;
+            long current;
+            long take;
+            do {
+                current = cells.get(index);
+                take = Math.min(current, units - taken);
+            } while (take > 0 && !cells.compareAndSet(index, current, current - take));
+            taken += Math.max(take, 0);
+        }
+        if (taken < units) {
+            release((int) taken);
+            return false;
+        }
+        return true;
+    }
+}
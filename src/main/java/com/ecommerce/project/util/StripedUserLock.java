@@ -0,0 +1,44 @@
+package com.ecommerce.project.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class StripedUserLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedUserLock(@Value("${spring.app.cartLockStripes:64}") int stripeCount) {
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    // Runs the action while holding the stripe owned by this user; reentrant for nested calls
+    public <T> T execute(Long userId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(userId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    private ReentrantLock stripeFor(Long userId) {
+        int h = Long.hashCode(userId);
+        h ^= (h >>> 16);
+        return stripes[h & mask];
+    }
+}
@@ -0,0 +1,50 @@
+package com.ecommerce.project.util;
+
+/**
+ * Token bucket: holds at most {@code capacity} tokens and refills continuously at
+ * {@code refillPerSecond}. Starts full, so a burst of {@code capacity} is allowed before the
+ * refill rate applies. Times are passed in as {@link System#nanoTime()} values.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    public synchronized boolean tryTake(long nowNanos) {
+        refill(nowNanos);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    /** True if {@link #tryTake} would succeed now, without taking the token. */
+    public synchronized boolean hasToken(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= 1;
+    }
+
+    /** True once the bucket has refilled completely, i.e. it is no different from a new one. */
+    public synchronized boolean isFull(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= capacity;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            refilledAt = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.project.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CartConstraintInitializerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CartConstraintInitializer initializer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE carts (cart_id bigint PRIMARY KEY, user_id bigint, " +
+                "total_price double precision, version bigint DEFAULT 0 NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE cart_items (cart_item_id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "cart_id bigint, product_id bigint, quantity integer, discount double precision, " +
+                "product_price double precision, UNIQUE (cart_id, product_id))");
+        initializer = new CartConstraintInitializer(jdbcTemplate, new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void mergesThreeCartsHoldingTheSameProductIntoTheOldest() {
+        cart(1, 7);
+        cart(2, 7);
+        cart(3, 7);
+        cart(4, 8);
+        item(1, 100, 1, 10.0);
+        item(2, 100, 4, 10.0);
+        item(3, 100, 2, 10.0);
+        item(2, 200, 1, 5.0);
+        item(3, 200, 3, 5.0);
+        item(4, 100, 9, 10.0);
+
+        assertEquals(2, initializer.mergeDuplicateCarts());
+
+        assertEquals(List.of(1L, 4L), jdbcTemplate.queryForList("SELECT cart_id FROM carts ORDER BY cart_id", Long.class));
+        List<Map<String, Object>> items = jdbcTemplate.queryForList(
+                "SELECT product_id, quantity FROM cart_items WHERE cart_id = 1 ORDER BY product_id");
+        assertEquals(2, items.size());
+        assertEquals(4, ((Number) items.get(0).get("quantity")).intValue());
+        assertEquals(3, ((Number) items.get(1).get("quantity")).intValue());
+        assertEquals(55.0, jdbcTemplate.queryForObject("SELECT total_price FROM carts WHERE cart_id = 1", Double.class));
+        assertEquals(9, jdbcTemplate.queryForObject("SELECT quantity FROM cart_items WHERE cart_id = 4", Integer.class));
+    }
+
+    @Test
+    void leavesCleanCartsAlone() {
+        cart(1, 7);
+        item(1, 100, 2, 10.0);
+
+        assertEquals(0, initializer.mergeDuplicateCarts());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items", Integer.class));
+    }
+
+    private void cart(long cartId, long userId) {
+        jdbcTemplate.update("INSERT INTO carts (cart_id, user_id, total_price) VALUES (?, ?, 0)", cartId, userId);
+    }
+
+    private void item(long cartId, long productId, int quantity, double price) {
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, quantity, discount, product_price) " +
+                "VALUES (?, ?, ?, 0, ?)", cartId, productId, quantity, price);
+    }
+}
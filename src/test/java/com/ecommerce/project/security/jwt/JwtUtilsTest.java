@@ -0,0 +1,110 @@
+package com.ecommerce.project.security.jwt;
+
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItdGVzdHMtb25seS1hdC1sZWFzdC0yNTYtYml0cy1sb25nIQ==";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = newJwtUtils(1000);
+    }
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromTheCache() {
+        String token = jwtUtils.generateTokenFromUsername("alice");
+
+        assertTrue(jwtUtils.validateJwtToken(token));
+        assertEquals("alice", jwtUtils.getUserNameFromJwtToken(token));
+        assertSame(jwtUtils.getVerifiedClaims(token), jwtUtils.getVerifiedClaims(token));
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokens() {
+        String token = jwtUtils.generateTokenFromUsername("alice");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertFalse(jwtUtils.validateJwtToken(tampered));
+
+        String expired = Jwts.builder()
+                .subject("alice")
+                .issuedAt(new Date(System.currentTimeMillis() - 20_000))
+                .expiration(new Date(System.currentTimeMillis() - 10_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        assertNull(jwtUtils.getVerifiedClaims(expired));
+    }
+
+    @Test
+    void selfContainedTokenCarriesThePrincipal() {
+        UserDetailsImpl user = new UserDetailsImpl(42L, "alice", "alice@example.com", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_SELLER")));
+
+        Claims claims = jwtUtils.getVerifiedClaims(jwtUtils.generateSelfContainedToken(user));
+        assertTrue(jwtUtils.isSelfContained(claims));
+
+        UserDetailsImpl principal = UserDetailsImpl.fromClaims(claims);
+        assertEquals(42L, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals("alice@example.com", principal.getEmail());
+        assertEquals(List.of("ROLE_USER", "ROLE_SELLER"),
+                principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    void repeatVerificationsSkipTheParser() {
+        String token = jwtUtils.generateTokenFromUsername("alice");
+        Claims first = jwtUtils.getVerifiedClaims(token);
+
+        JwtParser parser = mock(JwtParser.class);
+        ReflectionTestUtils.setField(jwtUtils, "parser", parser);
+        assertSame(first, jwtUtils.getVerifiedClaims(token));
+        assertTrue(jwtUtils.validateJwtToken(token));
+        verifyNoInteractions(parser);
+    }
+
+    @Test
+    void cacheNeverGrowsPastItsSize() {
+        JwtUtils small = newJwtUtils(2);
+        for (String user : List.of("alice", "bob", "carol", "dave", "erin")) {
+            assertEquals(user, small.getUserNameFromJwtToken(small.generateTokenFromUsername(user)));
+            Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(small, "verifiedTokens");
+            assertTrue(cache.size() <= 2);
+        }
+    }
+
+    private static JwtUtils newJwtUtils(int cacheSize) {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(utils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(utils, "selfContainedExpirationMs", 60_000L);
+        ReflectionTestUtils.setField(utils, "cacheSize", cacheSize);
+        utils.init();
+        return utils;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.payload.AccountRow;
+import com.ecommerce.project.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountAvailabilityServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void refreshPicksUpAccountsCreatedOnOtherNodes() {
+        when(userRepository.findMaxUserId()).thenReturn(500L);
+        when(userRepository.findAllUserNames()).thenReturn(List.of("alice"));
+        when(userRepository.findAllEmails()).thenReturn(List.of("alice@example.com"));
+        when(userRepository.existsByUserName("bob")).thenReturn(true);
+        when(userRepository.existsByEmail("bob@example.com")).thenReturn(true);
+        AccountAvailabilityService service = newService();
+        service.rebuild();
+        assertFalse(service.isUserNameTaken("bob"));
+
+        when(userRepository.findAccountsAfter(anyLong()))
+                .thenReturn(List.of(new AccountRow(501L, "bob", "bob@example.com")));
+        service.refresh();
+
+        assertTrue(service.isUserNameTaken("bob"));
+        assertTrue(service.isEmailTaken("bob@example.com"));
+        // Re-reads a short tail behind the highest id seen, for signups that committed out of order
+        verify(userRepository).findAccountsAfter(400L);
+    }
+
+    private AccountAvailabilityService newService() {
+        AccountAvailabilityService service = new AccountAvailabilityService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "expectedEntries", 1000L);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.01);
+        return service;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.project.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginThrottleServiceTest {
+
+    @Test
+    void failuresFromManyAddressesShareTheAccountLimit() {
+        LoginThrottleService throttle = newThrottle();
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(throttle.tryAcquire("Alice", "10.0.0." + i));
+            throttle.recordFailure("Alice");
+        }
+
+        assertFalse(throttle.tryAcquire("alice", "10.0.0.4"));
+        assertTrue(throttle.tryAcquire("bob", "10.0.0.4"));
+        assertEquals(1, throttle.getThrottledByAccount());
+    }
+
+    @Test
+    void successfulSignInsAreNotChargedToTheAccount() {
+        LoginThrottleService throttle = newThrottle();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(throttle.tryAcquire("alice", "10.0.0.1"));
+        }
+        assertEquals(0, throttle.getThrottledByAccount());
+    }
+
+    private static LoginThrottleService newThrottle() {
+        LoginThrottleService throttle = new LoginThrottleService();
+        ReflectionTestUtils.setField(throttle, "accountBurst", 3.0);
+        ReflectionTestUtils.setField(throttle, "accountPerMinute", 1.0);
+        ReflectionTestUtils.setField(throttle, "ipBurst", 100.0);
+        ReflectionTestUtils.setField(throttle, "ipPerMinute", 100.0);
+        return throttle;
+    }
+}
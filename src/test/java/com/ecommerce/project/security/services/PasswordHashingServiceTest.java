@@ -0,0 +1,62 @@
+package com.ecommerce.project.security.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+
+    @Test
+    void failsFastWith503WhenThePoolAndQueueAreFull() throws Exception {
+        PasswordHashingService service = new PasswordHashingService(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> service.execute(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.execute(() -> "second"));
+        while (service.getStats().getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class,
+                () -> service.execute(() -> "third"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+
+        release.countDown();
+        assertEquals("first", busy.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(2, service.getStats().getHashesCompleted());
+        assertEquals(1, service.getStats().getHashesRejected());
+        service.stopExecutor();
+    }
+
+    @Test
+    void rethrowsTheTasksOwnException() throws Exception {
+        PasswordHashingService service = new PasswordHashingService(1, 1);
+        assertThrows(BadCredentialsException.class, () -> service.execute(() -> {
+            throw new BadCredentialsException("Bad credentials");
+        }));
+        service.stopExecutor();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.AppRole;
+import com.ecommerce.project.model.Role;
+import com.ecommerce.project.repositories.RoleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RoleRegistryTest {
+
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+
+    @Test
+    void loadsEveryRoleOnceAndCreatesMissingOnes() {
+        Role user = new Role(AppRole.ROLE_USER);
+        user.setRoleId(1);
+        when(roleRepository.findByRoleName(any())).thenReturn(Optional.empty());
+        when(roleRepository.findByRoleName(AppRole.ROLE_USER)).thenReturn(Optional.of(user));
+        when(roleRepository.save(any(Role.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        RoleRegistry registry = new RoleRegistry(roleRepository);
+        registry.load();
+        for (int i = 0; i < 1000; i++) {
+            registry.get(AppRole.ROLE_USER);
+            registry.get(AppRole.ROLE_ADMIN);
+        }
+
+        assertSame(user, registry.get(AppRole.ROLE_USER));
+        assertEquals(AppRole.ROLE_SELLER, registry.get(AppRole.ROLE_SELLER).getRoleName());
+        verify(roleRepository, times(AppRole.values().length)).findByRoleName(any());
+        verify(roleRepository, times(AppRole.values().length - 1)).save(any(Role.class));
+    }
+
+    @Test
+    void failsBeforeTheRolesAreLoaded() {
+        assertThrows(RuntimeException.class, () -> new RoleRegistry(roleRepository).get(AppRole.ROLE_USER));
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.project.security.services;
+
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserDetailsServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void servesRepeatLookupsFromTheCacheUntilEvicted() {
+        UserDetailsServiceImpl service = newService(Duration.ofMinutes(1), 10);
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("alice");
+        verify(userRepository, times(1)).findByUserName("alice");
+
+        service.evict("alice");
+        service.loadUserByUsername("alice");
+        verify(userRepository, times(2)).findByUserName("alice");
+
+        assertEquals(1, service.getCacheStats().getHits());
+        assertEquals(2, service.getCacheStats().getMisses());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedUserWhenFull() {
+        UserDetailsServiceImpl service = newService(Duration.ofMinutes(1), 2);
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("bob");
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("carol");
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("bob");
+        verify(userRepository, times(1)).findByUserName("alice");
+        verify(userRepository, times(2)).findByUserName("bob");
+        assertEquals(2, service.getCacheStats().getEvictions());
+    }
+
+    @Test
+    void evictionInsideATransactionWaitsForTheCommit() {
+        UserDetailsServiceImpl service = newService(Duration.ofMinutes(1), 10);
+        service.loadUserByUsername("alice");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.evict("alice");
+            service.loadUserByUsername("alice");
+            verify(userRepository, times(1)).findByUserName("alice");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        service.loadUserByUsername("alice");
+        verify(userRepository, times(2)).findByUserName("alice");
+    }
+
+    @Test
+    void aLoadThatOverlapsAnEvictionIsNotCached() {
+        UserDetailsServiceImpl service = newService(Duration.ofMinutes(1), 10);
+        when(userRepository.findByUserName("alice")).thenAnswer(invocation -> {
+            // The row changes and is evicted while this load is still in flight
+            service.evict("alice");
+            return Optional.of(new User("alice", "alice@example.com", "hash"));
+        });
+
+        service.loadUserByUsername("alice");
+        service.loadUserByUsername("alice");
+        verify(userRepository, times(2)).findByUserName("alice");
+        assertEquals(0, service.getCacheStats().getSize());
+    }
+
+    private UserDetailsServiceImpl newService(Duration ttl, int size) {
+        when(userRepository.findByUserName(anyString())).thenAnswer(invocation -> {
+            User user = new User(invocation.getArgument(0), invocation.getArgument(0) + "@example.com", "hash");
+            return Optional.of(user);
+        });
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(ttl, size);
+        service.userRepository = userRepository;
+        return service;
+    }
+}
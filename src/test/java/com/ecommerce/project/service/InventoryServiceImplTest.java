@@ -0,0 +1,93 @@
+package com.ecommerce.project.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryServiceImplTest {
+
+    private static final int STOCK = 100;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private InventoryServiceImpl inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        inventoryService = new InventoryServiceImpl(jdbcTemplate);
+
+        jdbcTemplate.execute("CREATE TABLE product (product_id BIGINT PRIMARY KEY, quantity INT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO product VALUES (1, ?), (2, ?)", STOCK, STOCK);
+    }
+
+    @Test
+    void reportsShortProductsAndLeavesOthersToTheCallersRollback() {
+        InventoryService.StockResult result = inventoryService.decrement(Map.of(1L, 10, 2L, STOCK + 1));
+
+        assertFalse(result.isSuccessful());
+        assertEquals(List.of(2L), result.insufficientProductIds());
+        assertEquals(STOCK, stockOf(2L));
+    }
+
+    @Test
+    void restoreAddsUnitsBack() {
+        inventoryService.decrement(Map.of(1L, 30));
+        inventoryService.restore(Map.of(1L, 30));
+        assertEquals(STOCK, stockOf(1L));
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws InterruptedException {
+        int threads = 16;
+        int attemptsPerThread = 25;
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    // Two-line order, same shape as a checkout with two products in the cart
+                    boolean ok = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                        if (inventoryService.decrement(Map.of(2L, 1, 1L, 1)).isSuccessful()) {
+                            return true;
+                        }
+                        status.setRollbackOnly();
+                        return false;
+                    }));
+                    (ok ? placed : rejected).incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertEquals(STOCK, placed.get());
+        assertEquals(threads * attemptsPerThread - STOCK, rejected.get());
+        assertEquals(0, stockOf(1L));
+        assertEquals(0, stockOf(2L));
+    }
+
+    private int stockOf(long productId) {
+        return jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE product_id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.model.OrderStatus;
+import com.ecommerce.project.payload.AddressDTO;
+import com.ecommerce.project.payload.OrderDTO;
+import com.ecommerce.project.payload.OrderIntakeDTO;
+import com.ecommerce.project.payload.OrderItemRequestDTO;
+import com.ecommerce.project.payload.OrderRequestDTO;
+import com.ecommerce.project.repositories.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeServiceImplTest {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shutdownFinishesAcceptedRequestsAndRefusesNewOnes() throws Exception {
+        AtomicLong orderIds = new AtomicLong();
+        when(orderService.purchase(any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return new OrderDTO(orderIds.incrementAndGet(), null, OrderStatus.PENDING, 10.0, null, List.of());
+        });
+        OrderIntakeServiceImpl intake = newIntake();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        intake.startWorkers();
+
+        List<String> requestIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requestIds.add(intake.submit(request()).getRequestId());
+        }
+        intake.stopWorkers();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        for (String requestId : requestIds) {
+            assertEquals(OrderIntakeDTO.Stage.PLACED, intake.getStatus(requestId).getStage());
+        }
+        ResponseStatusException refused = assertThrows(ResponseStatusException.class, () -> intake.submit(request()));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, refused.getStatusCode());
+    }
+
+    @Test
+    void reportsTheOrdersCurrentStatusOncePlaced() throws Exception {
+        when(orderService.purchase(any())).thenReturn(
+                new OrderDTO(7L, null, OrderStatus.PENDING, 10.0, null, List.of()));
+        when(orderRepository.findStatusById(7L)).thenReturn(Optional.of(OrderStatus.COMPLETED));
+        OrderIntakeServiceImpl intake = newIntake();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        intake.startWorkers();
+        String requestId = intake.submit(request()).getRequestId();
+        intake.stopWorkers();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        OrderIntakeDTO status = intake.getStatus(requestId);
+        assertEquals(OrderIntakeDTO.Stage.PLACED, status.getStage());
+        assertEquals(OrderStatus.COMPLETED, status.getOrderStatus());
+    }
+
+    private OrderIntakeServiceImpl newIntake() {
+        OrderIntakeServiceImpl intake = new OrderIntakeServiceImpl(100);
+        ReflectionTestUtils.setField(intake, "orderService", orderService);
+        ReflectionTestUtils.setField(intake, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(intake, "workers", 1);
+        ReflectionTestUtils.setField(intake, "batchSize", 4);
+        ReflectionTestUtils.setField(intake, "drainTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(intake, "resultTtl", Duration.ofMinutes(5));
+        return intake;
+    }
+
+    private static OrderRequestDTO request() {
+        OrderItemRequestDTO item = new OrderItemRequestDTO();
+        item.setProductId(1L);
+        item.setQuantity(1);
+        return new OrderRequestDTO(new AddressDTO(), List.of(item), null);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.repositories.OrderSummaryRepository;
+import com.ecommerce.project.repositories.PaymentRepository;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.util.AuthUtil;
+import com.ecommerce.project.util.CurrentUserHolder;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.UnsatisfiedDependencyException;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PaymentGatewaySelectionTest {
+
+    // Loads the shipped application*.properties, so the default profiles are what production gets
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withInitializer(new ConfigDataApplicationContextInitializer())
+            .withBean(PaymentRepository.class, () -> mock(PaymentRepository.class))
+            .withBean(OrderSummaryRepository.class, () -> mock(OrderSummaryRepository.class))
+            .withBean(OrderService.class, () -> mock(OrderService.class))
+            .withBean(ModelMapper.class, () -> mock(ModelMapper.class))
+            .withBean(AuthUtil.class, () -> mock(AuthUtil.class))
+            .withBean(UserRepository.class, () -> mock(UserRepository.class))
+            .withBean(CurrentUserHolder.class, () -> mock(CurrentUserHolder.class))
+            .withBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class))
+            .withUserConfiguration(StubPaymentGateway.class, PaymentServiceImpl.class);
+
+    @Test
+    void failsToStartWhenNoGatewayIsConfigured() {
+        runner.run(context -> {
+            assertThat(context).hasFailed();
+            assertThat(context.getStartupFailure())
+                    .isInstanceOf(UnsatisfiedDependencyException.class)
+                    .hasRootCauseInstanceOf(NoSuchBeanDefinitionException.class)
+                    .rootCause().hasMessageContaining(PaymentGateway.class.getName());
+        });
+    }
+
+    @Test
+    void localProfileSelectsTheStub() {
+        runner.withSystemProperties("spring.profiles.active=dev,local").run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).getBean(PaymentGateway.class).isInstanceOf(StubPaymentGateway.class);
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.project.service;
+
+import com.ecommerce.project.payload.WaitingRoomStatusDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitingRoomServiceImplTest {
+
+    private WaitingRoomServiceImpl waitingRoom;
+
+    @BeforeEach
+    void setUp() {
+        waitingRoom = new WaitingRoomServiceImpl("test-secret");
+        ReflectionTestUtils.setField(waitingRoom, "enabled", true);
+        ReflectionTestUtils.setField(waitingRoom, "admitPerSecond", 10);
+        ReflectionTestUtils.setField(waitingRoom, "tokenTtl", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void admitsInJoinOrderAtTheConfiguredRate() {
+        waitingRoom.join("alice");
+        waitingRoom.join("bob");
+        assertEquals(2, waitingRoom.status("bob").getPosition());
+
+        waitingRoom.admit(); // 10/s at 100ms ticks admits one user per tick
+        assertTrue(waitingRoom.status("alice").isAdmitted());
+        assertEquals(1, waitingRoom.status("bob").getPosition());
+        assertEquals(1, waitingRoom.join("bob").getPosition());
+    }
+
+    @Test
+    void admissionTokenIsBoundToTheUser() {
+        waitingRoom.join("alice");
+        waitingRoom.admit();
+        WaitingRoomStatusDTO status = waitingRoom.status("alice");
+
+        assertTrue(waitingRoom.isAdmitted("alice", status.getAdmissionToken()));
+        assertFalse(waitingRoom.isAdmitted("mallory", status.getAdmissionToken()));
+        assertFalse(waitingRoom.isAdmitted("alice", status.getAdmissionToken() + "x"));
+        assertFalse(waitingRoom.isAdmitted("alice", "garbage"));
+    }
+
+    @Test
+    void pollingReturnsTheSameTokenAndNeverExtendsTheAdmission() {
+        waitingRoom.join("alice");
+        waitingRoom.admit();
+        WaitingRoomStatusDTO first = waitingRoom.status("alice");
+        WaitingRoomStatusDTO again = waitingRoom.status("alice");
+
+        assertEquals(first.getAdmissionToken(), again.getAdmissionToken());
+        assertEquals(first.getExpiresAt(), again.getExpiresAt());
+    }
+
+    @Test
+    void idleTicksDoNotBankAdmissions() {
+        for (int i = 0; i < 50; i++) {
+            waitingRoom.admit();
+        }
+        waitingRoom.join("alice");
+        waitingRoom.join("bob");
+        waitingRoom.admit();
+        assertFalse(waitingRoom.status("bob").isAdmitted());
+    }
+}
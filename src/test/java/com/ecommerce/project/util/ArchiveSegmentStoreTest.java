@@ -0,0 +1,107 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ArchiveSegmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsRecordsBackByOwnerOldestFirst() {
+        ArchiveSegmentStore store = new ArchiveSegmentStore(directory);
+        store.append("orders-2024-01", List.of(record(2, 7, 200, "second"), record(1, 7, 100, "first")));
+        store.append("orders-2024-02", List.of(record(3, 8, 300, "other owner")));
+
+        List<ArchiveSegmentStore.Entry> entries = store.entriesFor(7);
+        assertEquals(List.of(1L, 2L), entries.stream().map(ArchiveSegmentStore.Entry::id).toList());
+        assertEquals("first", text(store.read(entries.get(0))));
+        assertEquals("second", text(store.read(entries.get(1))));
+        assertEquals(1, store.countFor(8));
+    }
+
+    @Test
+    void reloadsIndexesAndIgnoresATornTail() throws IOException {
+        new ArchiveSegmentStore(directory).append("orders-2024-01",
+                List.of(record(1, 7, 100, "first"), record(2, 7, 200, "second")));
+        Files.write(directory.resolve("orders-2024-01.idx"), new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        ArchiveSegmentStore reopened = new ArchiveSegmentStore(directory);
+        List<ArchiveSegmentStore.Entry> entries = reopened.entriesFor(7);
+        assertEquals(2, entries.size());
+        assertEquals("second", text(reopened.read(entries.get(1))));
+    }
+
+    @Test
+    void seesRecordsPublishedByAnotherStoreOnRefresh() {
+        ArchiveSegmentStore writer = new ArchiveSegmentStore(directory);
+        ArchiveSegmentStore reader = new ArchiveSegmentStore(directory);
+        writer.append("orders-2024-01", List.of(record(1, 7, 100, "first")));
+        assertEquals(0, reader.countFor(7));
+        reader.refresh();
+        assertEquals(1, reader.countFor(7));
+
+        writer.append("orders-2024-01", List.of(record(2, 7, 200, "second")));
+        writer.append("orders-2024-02", List.of(record(3, 7, 300, "third")));
+        reader.refresh();
+        List<ArchiveSegmentStore.Entry> entries = reader.entriesFor(7);
+        assertEquals(List.of(1L, 2L, 3L), entries.stream().map(ArchiveSegmentStore.Entry::id).toList());
+        assertEquals("third", text(reader.read(entries.get(2))));
+    }
+
+    @Test
+    void stagedRecordsStayHiddenUntilPublishedAndCanBeDiscarded() {
+        ArchiveSegmentStore store = new ArchiveSegmentStore(directory);
+        store.stage(Map.of("orders-2024-01", List.of(record(1, 7, 100, "rolled back"))));
+        assertEquals(0, store.countFor(7));
+        assertEquals(List.of(1L), new ArchiveSegmentStore(directory).pendingIds());
+        store.discardPending();
+        assertEquals(List.of(), store.pendingIds());
+
+        store.stage(Map.of("orders-2024-01", List.of(record(2, 7, 200, "committed"))));
+        store.publishPending();
+        assertEquals(List.of(2L), store.entriesFor(7).stream().map(ArchiveSegmentStore.Entry::id).toList());
+        assertEquals("committed", text(store.read(store.entriesFor(7).get(0))));
+        assertEquals(1, new ArchiveSegmentStore(directory).countFor(7));
+    }
+
+    @Test
+    void appendAfterATornTailKeepsTheIndexAligned() throws IOException {
+        new ArchiveSegmentStore(directory).append("orders-2024-01", List.of(record(1, 7, 100, "first")));
+        Files.write(directory.resolve("orders-2024-01.idx"), new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        new ArchiveSegmentStore(directory).append("orders-2024-01", List.of(record(2, 7, 200, "second")));
+        List<ArchiveSegmentStore.Entry> entries = new ArchiveSegmentStore(directory).entriesFor(7);
+        assertEquals(List.of(1L, 2L), entries.stream().map(ArchiveSegmentStore.Entry::id).toList());
+        assertEquals("second", text(new ArchiveSegmentStore(directory).read(entries.get(1))));
+    }
+
+    @Test
+    void laterCopyOfAnIdSupersedesTheEarlierOne() {
+        ArchiveSegmentStore store = new ArchiveSegmentStore(directory);
+        store.append("orders-2024-01", List.of(record(1, 7, 100, "old")));
+        store.append("orders-2024-01", List.of(record(1, 7, 100, "new")));
+
+        assertEquals(1, store.countFor(7));
+        assertEquals("new", text(store.read(store.entriesFor(7).get(0))));
+    }
+
+    private static ArchiveSegmentStore.Record record(long id, long owner, long timestamp, String payload) {
+        return new ArchiveSegmentStore.Record(id, owner, timestamp, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
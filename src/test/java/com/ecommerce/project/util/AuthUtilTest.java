@@ -0,0 +1,83 @@
+package com.ecommerce.project.util;
+
+import com.ecommerce.project.model.User;
+import com.ecommerce.project.repositories.UserRepository;
+import com.ecommerce.project.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthUtilTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final AuthUtil authUtil = new AuthUtil();
+
+    @BeforeEach
+    void setUp() {
+        User user = new User("alice", "alice@example.com", "hash");
+        user.setUserId(7L);
+        when(userRepository.findByUserName("alice")).thenReturn(Optional.of(user));
+
+        authUtil.userRepository = userRepository;
+        authUtil.currentUserHolder = new CurrentUserHolder();
+
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void idAndEmailComeFromThePrincipalWithoutQueries() {
+        // The lookups a checkout makes: reservation release, cart lookup, order summary
+        assertEquals(7L, authUtil.loggedInUserId());
+        assertEquals("alice@example.com", authUtil.loggedInEmail());
+        assertEquals(7L, authUtil.loggedInUserId());
+        assertEquals(7L, authUtil.loggedInUserId());
+
+        verify(userRepository, never()).findByUserName(anyString());
+    }
+
+    @Test
+    void loadsTheUserEntityAtMostOncePerRequest() {
+        User first = authUtil.loggedInUser();
+        User second = authUtil.loggedInUser();
+        authUtil.loggedInEmail();
+
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByUserName("alice");
+    }
+
+    @Test
+    void outsideARequestEveryCallLoadsTheUser() {
+        RequestContextHolder.resetRequestAttributes();
+
+        authUtil.loggedInUser();
+        authUtil.loggedInUser();
+
+        verify(userRepository, times(2)).findByUserName("alice");
+    }
+}
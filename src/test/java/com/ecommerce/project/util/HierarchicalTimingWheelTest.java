@@ -0,0 +1,62 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void firesNearDeadlinesOnTheirTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 3, 0);
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 30);
+
+        assertTrue(wheel.advance(20).isEmpty());
+        assertEquals(List.of("a", "b"), wheel.advance(30));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFarDeadlinesThroughHigherLevels() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(10, 8, 3, 0);
+        // Level spans are 80ms, 640ms and 5120ms; the last deadline overflows the top level
+        int[] deadlines = {70, 95, 650, 1_000, 4_000, 9_999};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.schedule(i, deadlines[i]);
+        }
+
+        List<Integer> fired = new ArrayList<>();
+        for (long now = 10; now <= 10_000; now += 10) {
+            for (Integer key : wheel.advance(now)) {
+                long deadline = deadlines[key];
+                assertTrue(now >= deadline && now < deadline + 10, "key " + key + " fired at " + now);
+                fired.add(key);
+            }
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), fired);
+    }
+
+    @Test
+    void cancelAndRescheduleReplaceTheDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 2, 0);
+        wheel.schedule("cancelled", 50);
+        wheel.schedule("moved", 50);
+        assertTrue(wheel.cancel("cancelled"));
+        wheel.schedule("moved", 200);
+
+        assertTrue(wheel.advance(100).isEmpty());
+        assertEquals(List.of("moved"), wheel.advance(200));
+    }
+
+    @Test
+    void pastDeadlinesExpireOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 2, 1_000);
+        wheel.schedule("late", 500);
+        assertEquals(List.of("late"), wheel.advance(1_000));
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    @Test
+    void startsWithTheReserveAndRunsOut() {
+        RetryBudget budget = new RetryBudget(0.1, 2);
+        assertTrue(budget.tryRetry());
+        assertTrue(budget.tryRetry());
+        assertFalse(budget.tryRetry());
+    }
+
+    @Test
+    void earnsOneRetryPerTenAttemptsAtTenPercent() {
+        RetryBudget budget = new RetryBudget(0.1, 2);
+        budget.tryRetry();
+        budget.tryRetry();
+
+        for (int i = 0; i < 9; i++) {
+            budget.recordAttempt();
+        }
+        assertFalse(budget.tryRetry());
+
+        budget.recordAttempt();
+        assertTrue(budget.tryRetry());
+    }
+
+    @Test
+    void capsTheBalance() {
+        RetryBudget budget = new RetryBudget(0.5, 3);
+        for (int i = 0; i < 100; i++) {
+            budget.recordAttempt();
+        }
+        assertEquals(3, budget.availableTokens(), 1e-9);
+    }
+}
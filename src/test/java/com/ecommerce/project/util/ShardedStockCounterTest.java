@@ -0,0 +1,57 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedStockCounterTest {
+
+    @Test
+    void splitsUnitsEvenlyAndTracksReleases() {
+        ShardedStockCounter counter = new ShardedStockCounter(10, 4);
+        assertEquals(10, counter.available());
+
+        assertTrue(counter.tryAcquire(3));
+        counter.release(1);
+        assertEquals(8, counter.available());
+    }
+
+    @Test
+    void takesUnitsSpreadAcrossShards() {
+        // 2 units per shard; a request for 7 can only be met by combining shards
+        ShardedStockCounter counter = new ShardedStockCounter(8, 4);
+        assertTrue(counter.tryAcquire(7));
+        assertFalse(counter.tryAcquire(2));
+        assertEquals(1, counter.available());
+    }
+
+    @Test
+    void concurrentBuyersNeverOversell() throws InterruptedException {
+        int units = 10_000;
+        ShardedStockCounter counter = new ShardedStockCounter(units, 16);
+        AtomicInteger sold = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int t = 0; t < 16; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    int quantity = 1 + (i % 3);
+                    if (counter.tryAcquire(quantity)) {
+                        sold.addAndGet(quantity);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(units, sold.get() + counter.available());
+    }
+}
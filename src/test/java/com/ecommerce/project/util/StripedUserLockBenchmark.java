@@ -0,0 +1,59 @@
+package com.ecommerce.project.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention benchmark for {@link StripedUserLock}, kept out of the unit tests since its numbers
+ * depend on the machine. Compares threads mutating one user's state against threads on distinct
+ * users, and a single global lock as the baseline. Run after {@code mvn test-compile} with
+ * {@code java -cp target/classes:target/test-classes com.ecommerce.project.util.StripedUserLockBenchmark}.
+ */
+public class StripedUserLockBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 200_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        StripedUserLock striped = new StripedUserLock(64);
+        StripedUserLock global = new StripedUserLock(1);
+        for (int round = 1; round <= ROUNDS; round++) {
+            double sameUser = opsPerSecond(thread -> striped.execute(42L, StripedUserLockBenchmark::work));
+            double distinctUsers = opsPerSecond(thread -> striped.execute((long) thread, StripedUserLockBenchmark::work));
+            double globalLock = opsPerSecond(thread -> global.execute((long) thread, StripedUserLockBenchmark::work));
+            System.out.printf("round %d: same user %.0f ops/s, distinct users %.0f ops/s, single lock %.0f ops/s%n",
+                    round, sameUser, distinctUsers, globalLock);
+        }
+    }
+
+    // Stand-in for the in-memory part of a cart mutation
+    private static long work() {
+        long x = 0;
+        for (int i = 0; i < 200; i++) {
+            x += i * 31L;
+        }
+        return x;
+    }
+
+    private interface Op {
+        void apply(int thread);
+    }
+
+    private static double opsPerSecond(Op op) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            pool.submit(() -> {
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    op.apply(thread);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+        return (double) THREADS * OPS_PER_THREAD / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedUserLockTest {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 20_000;
+
+    @Test
+    void stripeCountIsRoundedToPowerOfTwo() {
+        assertEquals(64, new StripedUserLock(64).stripeCount());
+        assertEquals(128, new StripedUserLock(100).stripeCount());
+        assertEquals(1, new StripedUserLock(1).stripeCount());
+    }
+
+    @Test
+    void sameUserMutationsAreSerialized() throws Exception {
+        StripedUserLock lock = new StripedUserLock(64);
+        int[] total = new int[1];
+
+        run(THREADS, t -> lock.execute(42L, () -> total[0]++));
+
+        assertEquals(THREADS * OPS_PER_THREAD, total[0]);
+    }
+
+    @Test
+    void differentUsersProceedInParallel() throws Exception {
+        StripedUserLock lock = new StripedUserLock(64);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> lock.execute(1L, () -> {
+            held.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        holder.start();
+        assertTrue(held.await(5, TimeUnit.SECONDS));
+
+        // User 2 maps to another stripe, so it must not wait for user 1
+        CompletableFuture<String> other = CompletableFuture.supplyAsync(() -> lock.execute(2L, () -> "ok"));
+        assertEquals("ok", other.get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        holder.join();
+    }
+
+    @Test
+    void nestedCallsForTheSameUserAreReentrant() {
+        StripedUserLock lock = new StripedUserLock(16);
+        String result = lock.execute(7L, () -> lock.execute(7L, () -> "ok"));
+        assertEquals("ok", result);
+    }
+
+    private interface Op {
+        void apply(int thread);
+    }
+
+    private void run(int threads, Op op) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.submit(() -> {
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    op.apply(thread);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.project.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsABurstThenTheRefillRate() {
+        TokenBucket bucket = new TokenBucket(3, 0.5, 0);
+        assertTrue(bucket.tryTake(0));
+        assertTrue(bucket.tryTake(0));
+        assertTrue(bucket.tryTake(0));
+        assertFalse(bucket.tryTake(0));
+
+        assertFalse(bucket.tryTake(SECOND));
+        assertTrue(bucket.tryTake(2 * SECOND));
+        assertFalse(bucket.tryTake(2 * SECOND));
+    }
+
+    @Test
+    void neverRefillsBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryTake(0);
+        assertTrue(bucket.isFull(60 * SECOND));
+        assertTrue(bucket.tryTake(60 * SECOND));
+        assertTrue(bucket.tryTake(60 * SECOND));
+        assertFalse(bucket.tryTake(60 * SECOND));
+    }
+}